@@ -0,0 +1,61 @@
+package tictactow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * AIBenchmark measures how long the AIs take to pick a move in a
+ * mid-game position. The hard AI searches to a fixed depth so the
+ * numbers stay comparable between engine changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AIBenchmark {
+
+    @Param({"3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15"})
+    int size;
+
+    @Param({"4"})
+    int hardDepth;
+
+    GameState game;
+    MediumAI mediumAI;
+    AlphaBetaSearch search;
+
+    @Setup
+    public void setup() {
+        game = BenchmarkPositions.midGame(size);
+        mediumAI = new MediumAI();
+        search = new AlphaBetaSearch(size);
+    }
+
+    @Benchmark
+    public int mediumAIPlacement() {
+        return mediumAI.chooseMove(game);
+    }
+
+    // The search board is reloaded every time, which is also what
+    // the hard AI does at the start of every move. The table is
+    // cleared so every invocation searches from scratch.
+    @Benchmark
+    public int hardAIPlacement() {
+        search.clearTable();
+        search.setPosition(game);
+        return search.findBestMove(game.toMove(), 3600000, hardDepth).getMove();
+    }
+}
@@ -0,0 +1,48 @@
+package tictactow;
+
+import java.util.SplittableRandom;
+
+/*
+ * BenchmarkPositions builds the positions used by the benchmarks. They
+ * are deterministic mid-game boards without a completed line, so every
+ * size is measured on comparable work.
+ */
+final class BenchmarkPositions {
+
+    private static final long SEED = 0x5eed7ac70eL;    // Fixes the fill between runs.
+
+    private BenchmarkPositions() {
+    }
+
+    // Returns true if the tile belongs to the partial fill, about one
+    // tile in three picked pseudo-randomly from a fixed seed.
+    static boolean isFilled(int index) {
+        return new SplittableRandom(SEED + index).nextInt(3) == 0;
+    }
+
+    // Returns the piece used for a tile of the fill. The pattern mixes
+    // every row, column and diagonal so no line is ever completed.
+    static int pieceFor(int size, int index) {
+        int row = index / size, column = index % size;
+        return (column + 2*row) % 4 < 2 ? GameState.X : GameState.O;
+    }
+
+    // Returns a game of the given size with about a third of its tiles filled.
+    static GameState midGame(int size) {
+        GameState game = new GameEngine(size).newGame();
+        for(int i = 0; i < size*size; i++) {
+            if(isFilled(i)) game.apply(i, pieceFor(size, i));
+        }
+        return game;
+    }
+
+    // Put the same mid-game position on the AITictactoe console board.
+    static void loadAITictactoe(int size) {
+        AITictactoe.initializeBoardSize(size);
+        for(int i = 0; i < size*size; i++) {
+            if(!isFilled(i)) continue;
+            if(pieceFor(size, i) == GameState.X) AITictactoe.insertPiece(i, AITictactoe.BoardPiece.X);
+            else AITictactoe.insertPiece(i, AITictactoe.BoardPiece.O);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package tictactow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * BoardBenchmark measures the board operations every turn goes through:
+ * placing a piece, which checks the lines through it for a win, and the
+ * full board check.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15"})
+    int size;
+
+    GameState game;     // Mid-game position used for placing pieces.
+    int emptyTile;      // A tile that is empty in that position.
+
+    @Setup
+    public void setup() {
+        BenchmarkPositions.loadAITictactoe(size);
+        game = BenchmarkPositions.midGame(size);
+        emptyTile = game.legalMoves()[0];
+    }
+
+    @Benchmark
+    public boolean boardIsFull() {
+        return AITictactoe.boardIsFull();
+    }
+
+    // insertPiece() places through GameState.apply(), which is where a
+    // win is detected. The undo puts the board back so every invocation
+    // does the same work.
+    @Benchmark
+    public GameStatus insertPiece() {
+        GameStatus status = game.apply(emptyTile, game.toMove());
+        game.undo();
+        return status;
+    }
+}
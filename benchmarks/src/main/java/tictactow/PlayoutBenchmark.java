@@ -0,0 +1,44 @@
+package tictactow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * PlayoutBenchmark measures random games per second on one core from an
+ * empty board, the work behind every Monte Carlo playout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+
+    @Param({"3", "4", "5", "7", "9", "15"})
+    int size;
+
+    PlayoutEngine engine;
+
+    @Setup
+    public void setup() {
+        engine = new PlayoutEngine(BoardLines.forSize(size), 1);
+    }
+
+    @Benchmark
+    public int randomGame() {
+        engine.reset();
+        return engine.playout();
+    }
+}
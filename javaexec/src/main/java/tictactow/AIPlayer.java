@@ -0,0 +1,29 @@
+package tictactow;
+
+/*
+ * AIPlayer is a computer opponent that picks moves for whichever player
+ * is to move in a GameState. Implementations have no console output, so
+ * they can play humans through AITictactoe or each other through SelfPlay.
+ * An AIPlayer may keep state between moves and is not thread safe; use
+ * one instance per thread.
+ */
+public interface AIPlayer {
+
+    // Returns the tile the player to move in game should place on,
+    // or -1 if there is no legal move.
+    int chooseMove(GameState game);
+
+    // Returns a move like chooseMove(game), within timeLimitMillis.
+    // Searching players always have a best move so far and return it
+    // when the time is up; the others ignore the limit.
+    default int chooseMove(GameState game, long timeLimitMillis) {
+        return chooseMove(game);
+    }
+
+    // Returns the difficulty name of this player.
+    String getName();
+
+    // Forget any state kept from a previous game.
+    default void reset() {
+    }
+}
@@ -1,8 +1,6 @@
 package tictactow;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 
 /**
  * Project: (Single Dev): Tic-Tac-Toe with AI Opponent
@@ -18,19 +16,27 @@ import java.io.InputStreamReader;
  *      Implement an AI opponent with different difficulty levels (easy, medium, hard).                                                                 X
  *      Easy: The AI makes random moves.                                                                                                                X
  *      Medium: The AI uses a basic strategy to block the player's winning moves and make its own winning moves.                                        X
- *      Hard: The AI uses advanced algorithms like the minimax algorithm to make optimal moves. https://www.neverstopbuilding.com/blog/minimax
+ *      Hard: The AI uses advanced algorithms like the minimax algorithm to make optimal moves. https://www.neverstopbuilding.com/blog/minimax        X
  *
  */
 public class AITictactoe 
 {
-    static private BoardPiece[] boardMap;                       // An array that represents the board layout of tic-tac-toe.
-    static private BufferedReader reader = new BufferedReader   // Console input reader.
-                        (new InputStreamReader(System.in));     
+    static private GameState game;                              // The game being played, holds the board layout of tic-tac-toe.
     static private int AIDiff;                                  // Keeps track of the difficulty setting.
-    static private int AITarget = -1;                           // Keeps track of target row for AI.
     static private int size;                                    // The length and width of the tic-tac-toe board.
+    static private long AITimeLimit =                           // Milliseconds the AI may take per move, -Dtictactow.ai.millis.
+        Long.getLong("tictactow.ai.millis", 3000);
+    static private EasyAI easyAI = new EasyAI();                // Random placement strategy.
+    static private MediumAI mediumAI = new MediumAI();          // Threat blocking strategy, keeps its target line between moves.
+    static private int searchThreads = Integer.getInteger(       // Threads of the hard AI search, -Dtictactow.search.threads.
+        "tictactow.search.threads", Runtime.getRuntime().availableProcessors());
+    static private HardAI hardAI;                               // Tablebase on 3x3, parallel alpha-beta search on larger boards, see hardAI().
+    static private MonteCarloAI monteCarloAI =                  // Parallel Monte Carlo tree search for large boards.
+        new MonteCarloAI(AITimeLimit);
+    static private OpeningBook hardBook = new OpeningBook(1 << 16);         // Moves the hard AI proved before.
 
     // This enum represents tic-tac-toe pieces or the lack of it.
+    // The ordinals match the GameState piece values.
     enum BoardPiece {
         EMPTY,
         X,
@@ -39,7 +45,7 @@ public class AITictactoe
 
     // Returns the amount of slots in the board.
     public static int getBoardPieceAmount() {
-        return boardMap.length;
+        return game.getCellCount();
     }
 
     // Returns the length/width of the board.
@@ -50,31 +56,7 @@ public class AITictactoe
     // printBoard() will print a representation of the board
     // and its tiles into the terminal.
     static void printBoard() {
-        
-        System.out.println();
-
-        // For every tile in the board
-        for(int i = 0; i < boardMap.length; i++) {
-
-            // Gather size and specific element.
-            BoardPiece element = boardMap[i];
-
-            // Print the specific piece.
-            if(element == BoardPiece.EMPTY) System.out.print(" ");
-            else if(element == BoardPiece.X) System.out.print("X");
-            else System.out.print("O");
-
-            // if the tile is at the end of the board
-            // create a separator line.
-            if((i+1) % size == 0) {
-                System.out.println();
-                String separator = "-";
-                String line = separator.repeat(size + size-1);
-                System.out.println(line);
-            }
-            else System.out.print("|");
-        }
-        System.out.println();
+        BoardRenderer.console().render(game);
     }
 
     // Initialize the board size using user input.
@@ -88,7 +70,7 @@ public class AITictactoe
 
             // Catch string input given by the user.
             try {
-                length = Integer.parseInt(reader.readLine());
+                length = Integer.parseInt(ConsoleInput.readLine());
                 if(length < 3) {
                     System.out.println("The board size must be 3x3 minimum. Please try again.");
                     continue;
@@ -103,13 +85,36 @@ public class AITictactoe
 
         }
 
-        // Initialize the BoardPiece array and set all elements as empty.
-        boardMap = new BoardPiece[length*length];
-        size = length;
-        for(int i = 0; i < boardMap.length; i++) {
-            boardMap[i] = BoardPiece.EMPTY;
+        // Start a new game on an empty board of the given size.
+        initializeBoardSize(length, readWinLength(length));
+    }
+
+    // Ask how many pieces in a row are needed to win on a board
+    // of the given length. An empty answer keeps the full line.
+    static int readWinLength(int length) {
+        if(length == 3) return 3;
+
+        System.out.println("How many pieces in a row are needed to win?");
+        System.out.println("Press enter for " + length + ", or type a number from 3 to " + length + ".");
+        while(true) {
+            System.out.print("> ");
+
+            // Catch string input given by the user.
+            try {
+                String line = ConsoleInput.readLine();
+                if(line == null || line.trim().isEmpty()) return length;
+                int winLength = Integer.parseInt(line.trim());
+                if(winLength < 3 || winLength > length) {
+                    System.out.println("The win length must be between 3 and " + length + ". Please try again.");
+                    continue;
+                }
+                return winLength;
+            }
+            // Let the user know that only numbers are allowed.
+            catch(IOException | NumberFormatException ex) {
+                System.out.println("Invalid Input. Please enter a number.");
+            }
         }
-        System.out.println("Board Size is set!");
     }
 
     // Initialize the board size using parameter size.
@@ -121,12 +126,26 @@ public class AITictactoe
             return;
         }
 
-        // Initialize the BoardPiece array and set all elements as empty.
-        boardMap = new BoardPiece[length*length];
-        size = length;
-        for(int i = 0; i < boardMap.length; i++) {
-            boardMap[i] = BoardPiece.EMPTY;
+        initializeBoardSize(length, length);
+    }
+
+    // Initialize the board size and the amount of pieces
+    // in a row needed to win.
+    static void initializeBoardSize(int length, int winLength) {
+
+        // The minimum board size is a 3x3
+        if(length < 3) {
+            System.out.println("Board size must be a minimum of 3x3.");
+            return;
         }
+        if(winLength < 3 || winLength > length) {
+            System.out.println("Win length must be between 3 and the board size.");
+            return;
+        }
+
+        // Start a new game on an empty board of the given size.
+        game = new GameEngine(length, winLength).newGame();
+        size = length;
         System.out.println("Board Size is set!");
     }
 
@@ -135,7 +154,7 @@ public class AITictactoe
     // member variable AIDiff
     static void setAIDifficulty() {
         System.out.println("\nEnter an AI difficulty setting.");
-        System.out.println("1. Easy\n2. Medium\n3. Hard");
+        System.out.println("1. Easy\n2. Medium\n3. Hard\n4. Monte Carlo (best on large boards)");
 
         int response;
         while(true) {
@@ -144,17 +163,17 @@ public class AITictactoe
 
             // Catch any string input from user.
             try {
-                response = Integer.parseInt(reader.readLine());
+                response = Integer.parseInt(ConsoleInput.readLine());
             } 
             // Let the user know only numbers are allowed.
             catch(IOException | NumberFormatException ex) {
-                System.out.println("Invalid Input. Please enter a number 1-3.");
+                System.out.println("Invalid Input. Please enter a number 1-4.");
                 continue;
             }
 
-            // Only 1,2,3 are valid responses from the user.
-            if(response > 3 || response < 1) 
-                System.out.println("Invalid Input. Please enter a number 1-3.");
+            // Only 1,2,3,4 are valid responses from the user.
+            if(response > 4 || response < 1) 
+                System.out.println("Invalid Input. Please enter a number 1-4.");
             else {
                 AIDiff = response;
                 break;
@@ -163,93 +182,11 @@ public class AITictactoe
 
     }
 
-    // Checks if a player has won following a piece placement.
+    // Checks if a player has won following a piece placement. The win
+    // was already detected while the piece was placed, from the lines
+    // through it, so this only reads the status of the game.
     static boolean checkForVictory() {
-        
-        // We need to check by row. Ex: assuming 3x3 we send index 0,3,6
-        // so that checkValidRow() checks every piece on that row.
-        for(int i = 0; i < size; i++) {
-            if(checkValidRow(i*size))
-                return true;
-        }
-
-        // We need to check by column. We check by reading
-        // top down so we send the index of every piece on
-        // the top row. Ex: assuming 3x3 .. send 0 1 2
-        for(int i = 0; i < size; i++) {
-            if(checkValidColumn(i))
-                return true;
-        }
-
-        // We need to check by diagonal. We use checkLeftDiagonal()
-        // and checkRightDiagonal() to confirm if there was a victory
-        // via diagonal.
-        if(checkLeftDiagonal() || checkRightDiagonal())
-            return true;
-
-        return false;
-    }
-
-    // Check if a row is filled/valid for victory.
-    static boolean checkValidRow(int row) {
-
-        BoardPiece startingPiece = boardMap[row];
-        if(startingPiece == BoardPiece.EMPTY) return false;
-
-        // if any of the row pieces do not match, no victory
-        for(int i = row+1; i < row+size; i++) {
-            if(boardMap[i] != startingPiece) return false;
-        }
-
-        return true;
-    }
-
-    // Check if a column is filled/valid for victory.
-    static boolean checkValidColumn(int column) {
-        
-        BoardPiece startingPiece = boardMap[column];
-        if(startingPiece == BoardPiece.EMPTY) return false;
-
-        // if any of the column pieces do not match, no victory
-        for(int i = column+size; i < boardMap.length; i=i+size) {
-            if(boardMap[i] != startingPiece) return false;
-        }
-
-        return true;
-    }
-
-    // Check if the diagonal starting from the top left going
-    // to bottom right has been filled by the same piece.
-    static boolean checkLeftDiagonal() {
-
-        BoardPiece leftDiag = boardMap[0];
-        if(leftDiag == BoardPiece.EMPTY) return false;
-
-        // if any of the diagonal pieces do not match, no victory
-        if(leftDiag != BoardPiece.EMPTY) {
-            for(int i = size+1; i < boardMap.length; i=i+size+1) {
-                if(boardMap[i] != leftDiag) return false;
-            }
-        }
-
-        return true;
-    }
-
-    // Check if the diagonal starting from the top right going
-    // to bottom left has been filled by the same piece.
-    static boolean checkRightDiagonal() {
-
-        BoardPiece rightDiag = boardMap[size-1];
-        if(rightDiag == BoardPiece.EMPTY) return false;
-
-        // if any of the diagonal pieces do not match, no victory
-        if(rightDiag != BoardPiece.EMPTY) {
-            for(int i = (size-1)*2; i < boardMap.length-(size-1); i=i+(size-1)) {
-                if(boardMap[i] != rightDiag) return false;
-            }
-        }
-
-        return true;
+        return game.status().hasWinner();
     }
 
     // Insert a proper piece (X or O) into the board.
@@ -261,14 +198,29 @@ public class AITictactoe
             return;
         }
         
-        boardMap[index] = piece;
+        // Do not allow the placement of pieces on a filled tile
+        // or after the game has ended.
+        if(!game.isEmpty(index)) {
+            System.out.println("The position already has an X or O.");
+            return;
+        }
+        if(game.isOver()) {
+            System.out.println("The game is already over.");
+            return;
+        }
+
+        // Placing detects a win from the lines through the tile, the
+        // victory check recorded in EngineMetrics.
+        long start = System.nanoTime();
+        game.apply(index, piece.ordinal());
+        EngineMetrics.shared().recordVictoryCheck(System.nanoTime() - start);
     }
 
     // Check if a specified position is empty or not.
     static boolean validPosition(int index) {
 
         // If index provided greater than the size of board.
-        if(index >= boardMap.length) {
+        if(index >= game.getCellCount()) {
             System.out.println("The position given is greater than the size of the board.");
             return false;
         }
@@ -278,7 +230,7 @@ public class AITictactoe
             return false;
         }
         // If index provided is already filled by a proper piece.
-        else if(boardMap[index] != BoardPiece.EMPTY) {
+        else if(!game.isEmpty(index)) {
             System.out.println("The position already has an X or O.");
             return false;
         }
@@ -289,13 +241,9 @@ public class AITictactoe
     // Check if the board is full of valid pieces (X or O).
     static boolean boardIsFull() {
 
-        // for every tile, if one of them is empty,
-        // the board is not full.
-        for(BoardPiece element: boardMap) {
-            if(element == BoardPiece.EMPTY) return false;
-        }
-
-        return true;
+        // the board is full once the amount of pieces
+        // matches the amount of tiles.
+        return game.getPieceCount() == game.getCellCount();
     }
 
     // Gather a position from the user and check if its a valid position. 
@@ -304,6 +252,7 @@ public class AITictactoe
     static void gatherPlayerPlacement() {
 
         int index;
+        long start = System.nanoTime();
         System.out.println("Player's turn. Where would you like to place your piece? (Type 1, 2, 3, etc.)");
 
         while(true) {
@@ -311,7 +260,7 @@ public class AITictactoe
 
             // Catch any strings sent by the user.
             try {
-                index = Integer.parseInt(reader.readLine())-1;
+                index = Integer.parseInt(ConsoleInput.readLine())-1;
             } 
             // Let the user know that strings are not allowed and we are looking for a number. 
             catch(IOException | NumberFormatException ex) {
@@ -326,136 +275,125 @@ public class AITictactoe
         }
 
         insertPiece(index, BoardPiece.X);
+        long waited = System.nanoTime() - start;
+        EngineMetrics.shared().recordHumanWait(waited);
+        GameLog.move(index, waited / 1000000L);
 
     }
 
     // AITurn() will simulate a turn made by the AI.
     // Should insert a piece based on the difficulty setting
     // and check if the AI won following that placement.
+    // Hard mode first looks in its opening book and only searches
+    // positions it has not solved before.
     static void AITurn() {
+        AITurn(AITimeLimit);
+    }
 
-        if(AIDiff == 1)
-            easyAIPlacement();
-        else if(AIDiff == 2)
-            mediumAIPlacement();
-        else {
-            System.out.println("Hard AI not implemented yet ... dropping to Medium Difficulty.");
-            mediumAIPlacement();
-            // hardAIPlacement(); // Not implemented.
+    // An AI turn that must be over within timeLimitMillis. The searching
+    // difficulties keep a best move ready and stop early enough to leave
+    // a margin for placing it. Whether the deadline was met is recorded
+    // in EngineMetrics.
+    static void AITurn(long timeLimitMillis) {
+
+        long start = System.nanoTime();
+        int pieces = game.getPieceCount();
+        boolean fromBook = AIDiff == 3 && bookPlacement(hardBook);
+        if(!fromBook) {
+            if(AIDiff == 1)
+                easyAIPlacement();
+            else if(AIDiff == 2)
+                mediumAIPlacement();
+            else {
+                long remaining = timeLimitMillis - (System.nanoTime() - start) / 1000000L;
+                long searchMillis = Math.max(1, remaining - Math.max(5, timeLimitMillis/20));
+                if(AIDiff == 3)
+                    hardAIPlacement(searchMillis);
+                else
+                    monteCarloAIPlacement(searchMillis);
+            }
         }
+        long elapsed = System.nanoTime() - start;
+
+        // Nodes or playouts searched, none for a book move.
+        long searched = 0;
+        if(!fromBook && AIDiff == 3 && hardAI().getLastResult() != null) searched = hardAI().getLastResult().getNodes();
+        else if(!fromBook && AIDiff == 4 && monteCarloAI.getLastResult() != null) searched = monteCarloAI.getLastResult().getPlayouts();
+        EngineMetrics.shared().recordAIMove(elapsed, searched);
+        EngineMetrics.shared().recordDeadline(elapsed <= timeLimitMillis*1000000L);
+
+        if(game.getPieceCount() > pieces) GameLog.move(game.lastMove(), elapsed / 1000000L);
+
+        // Keep thinking while the player does. This also ends the ponder
+        // of the previous turn, which a book move leaves running.
+        if(AIDiff == 3) hardAI().ponder(game);
 
     }
 
     // Easy AI placement strategy involves placing randomly.
     static void easyAIPlacement() {
 
-        while (true) {
-
-            // Grab a random position on the board.
-            int position = (int) (Math.random() * boardMap.length);
-            // if its empty, place an O in the position
-            // else the while loop continues.
-            if(boardMap[position] == BoardPiece.EMPTY) {
-                insertPiece(position, BoardPiece.O);
-                break;
-            }
-
-        }
+        int position = easyAI.chooseMove(game);
+        if(position != -1) insertPiece(position, BoardPiece.O);
     }
 
-    // Medium AI placement strategy is a simple defensive strategy which
-    // involves blocking the third in a row if needed, else placing in a specific path.
+    // Medium AI placement strategy takes its own winning tile, else blocks
+    // the opponent's winning tile on any line, else places along a target line.
     static void mediumAIPlacement() {
         
         System.out.println("Your opponent is making his move!");
 
-        // Choose a row if none was selected before.
-        if(AITarget == -1) AITarget = (int) (Math.random()*size);
-
-        // Defensive Strategy
-        // Find a possible 3 piece victory from the player
-        // and close it. If one wasnt found, proceed to
-        // offensive strategy.
-
-        for(int i = 0; i < size; i++) {
-            int slotToClose = checkPlayerRow(i*size);
-            if(slotToClose != -1) {
-                insertPiece(slotToClose, BoardPiece.O);
-                return;
-            }
-        }
-
-        // Offensive Strategy
-        // Select a row and keep placing on that 
-        // row unless no avenue for victory.
-        // If blocked, switch to another row.
-        // If all rows blocked, place randomly.
-        
-        // If the player blocks the AI's row, switch to
-        // a random target row.
-        if(countPlayerPiecesOnRow(AITarget*size) > 0) AITarget = (int) (Math.random()*size);
-
-        int rowStartIndex = AITarget*size;
-
-        // Keep placing on a selected row.
-        for(int i = 0; i < size; i++) {   // For every item in row.
-            BoardPiece currPosition = boardMap[rowStartIndex+i];
-
-            // If there is an empty slot in the target row, place a piece.
-            if(currPosition == BoardPiece.EMPTY) {
-                insertPiece(rowStartIndex+i, BoardPiece.O);
-                return;
-            }
+        int position = mediumAI.chooseMove(game);
+        if(position != -1) insertPiece(position, BoardPiece.O);
+    }
 
-        }
+    // Place the move remembered for this position, if any.
+    static boolean bookPlacement(OpeningBook book) {
 
-        // If all rows blocked, place randomly.
-        while (!boardIsFull()) {
-            int position = (int) (Math.floor(Math.random() * boardMap.length));
-            if(boardMap[position] == BoardPiece.EMPTY) {
-                insertPiece(position, BoardPiece.O);
-                break;
-            }
-        }
+        int position = book.lookup(game);
+        if(position == -1 || !game.isEmpty(position)) return false;
 
+        insertPiece(position, BoardPiece.O);
+        System.out.println("Your opponent remembered this position (" + book + ").");
+        return true;
     }
 
-    // Count the amount of player pieces on row.
-    // Used to let MediumAIPlacement know to move on
-    // to next row.
-    static int countPlayerPiecesOnRow(int row) {
-        int count = 0;
-        for(int i = row+1; i < row+size; i++) {
-            if(boardMap[i] == BoardPiece.X) count++; 
-        }
-        return count;
+    // Returns the hard AI, created the first time hard mode plays, so
+    // other modes never build its tablebase or search threads.
+    static HardAI hardAI() {
+        if(hardAI == null) hardAI = new HardAI(AITimeLimit, Tablebase.shared(), searchThreads);
+        return hardAI;
     }
 
-    // Check the amount of player tokens on a row,
-    // if it gets one before winning on a row, return
-    // the index of the position needed to block the player.
-    static int checkPlayerRow(int row) {
-        
-        int emptySlot = -1;
-        int amountOfPlayertoken = 0;
+    // Hard AI placement strategy looks 3x3 moves up in the tablebase and
+    // otherwise runs an alpha-beta search over the current board, placing
+    // on the best tile it found within timeLimitMillis. The search
+    // statistics are printed after the move.
+    static void hardAIPlacement(long timeLimitMillis) {
 
-        // for every tile in a given row.
-        for(int i = row; i < row+size; i++) {
-            if(boardMap[i] == BoardPiece.X) amountOfPlayertoken++;  // track amount of player tokens
-            else if(boardMap[i] == BoardPiece.EMPTY) emptySlot = i; // track a free slot in that row
-        }
+        System.out.println("Your opponent is thinking...");
 
-        // If the row is almost filled by the player
-        // return the specific empty slot so that
-        // the AI can place it's piece there.
-        if(amountOfPlayertoken >= size-1) return emptySlot;
-        else return -1;
+        int position = hardAI().chooseMove(game, timeLimitMillis);
+        if(position == -1) return;
+        hardBook.store(game, hardAI().getLastResult());
 
+        insertPiece(position, BoardPiece.O);
+        if(hardAI().isLastFromTablebase()) System.out.println("Your opponent knew the perfect move by heart.");
+        else if(hardAI().isLastFromPonder()) System.out.println("Your opponent saw your move coming and " + hardAI().getLastResult() + ".");
+        else System.out.println("Your opponent " + hardAI().getLastResult() + ".");
     }
 
-    // Future Algorithm for hardAI
-    static void hardAIPlacement() {
-        return;
+    // Monte Carlo AI placement strategy plays random games on every core
+    // for timeLimitMillis and places on the tile that won the most.
+    // The amount of playouts per second is printed after the move.
+    static void monteCarloAIPlacement(long timeLimitMillis) {
+
+        System.out.println("Your opponent is thinking...");
+
+        int position = monteCarloAI.chooseMove(game, timeLimitMillis);
+        if(position == -1) return;
+        insertPiece(position, BoardPiece.O);
+        System.out.println("Your opponent " + monteCarloAI.getLastResult() + ".");
     }
 
     // run() manages the Main Loop of tic-tac-toe.
@@ -470,6 +408,9 @@ public class AITictactoe
         initializeBoardSize();
         setAIDifficulty();
 
+        // Difficulties 1 to 4 match the order of GameRecord.Player.
+        GameLog.begin(game, GameRecord.Player.HUMAN, GameRecord.Player.values()[AIDiff]);
+
         // update with visual representation.
         printBoard();
         
@@ -485,6 +426,8 @@ public class AITictactoe
             // Check if the player won.
             if(checkForVictory()) {
                 System.out.println("Player has won!");
+                if(hardAI != null) hardAI.stopPondering();
+                GameLog.end(game.status());
                 try {Thread.sleep(900);}
                 catch(InterruptedException ex) {throw new RuntimeException(ex);}
                 System.out.println("Closing Multiplayer Tic-Tac-Toe...");
@@ -499,6 +442,7 @@ public class AITictactoe
             // Check if the AI won.
             if(checkForVictory()) {
                 System.out.println("Player has lost!");
+                GameLog.end(game.status());
                 try {Thread.sleep(900);}
                 catch(InterruptedException ex) {throw new RuntimeException(ex);}
                 System.out.println("Closing Multiplayer Tic-Tac-Toe...");
@@ -510,6 +454,7 @@ public class AITictactoe
         try {Thread.sleep(1000);}
         catch(InterruptedException ex) {throw new RuntimeException(ex);}
         System.out.println("It's a draw!");
+        GameLog.end(game.status());
 
 
     }
@@ -0,0 +1,339 @@
+package tictactow;
+
+/*
+ * AlphaBetaSearch is the engine behind the hard AI. It runs a negamax
+ * search with alpha-beta pruning, iterative deepening and a Zobrist keyed
+ * transposition table. The table is keyed by the canonical hash of the
+ * board, so all 8 rotations and reflections of a position share one entry
+ * and the best move is stored in the canonical orientation. Moves are
+ * ordered by a MoveGenerator and positions at the depth limit are scored
+ * by an Evaluator. On a 3x3 board the search always reaches the end of
+ * the game, on bigger boards it returns the best move of the deepest
+ * iteration that finished within the time budget, improved by the root
+ * moves the unfinished iteration got through. An iteration is not started
+ * once half the budget is gone, since it would hardly ever finish.
+ *
+ * Several searches can share one transposition table, which is how
+ * ParallelSearch spreads a search over threads.
+ *
+ * Pieces are represented by integers: 0 is empty, 1 is X and 2 is O.
+ */
+public class AlphaBetaSearch {
+
+    static final int EMPTY = 0;
+    static final int X = 1;
+    static final int O = 2;
+
+    static final int WIN_SCORE = 1000000;           // Score of a win on the next move, reduced by the ply it happens on.
+    static final int MAX_PLY = 10000;               // Upper bound for the amount of moves in a game.
+    static final int INFINITY = WIN_SCORE + 1;
+
+    private static final int TABLE_SLOTS = 1 << 20;   // Slots of the transposition table, 3x3 needs far fewer.
+
+    private final int size;                         // The length and width of the board.
+    private final int winLength;                    // Amount of pieces in a row needed to win.
+    private final int cellCount;                    // The amount of tiles on the board.
+    private final WinTracker tracker;               // Line counts used to detect wins on make/unmake.
+    private final int[] cells;                      // Current piece on every tile.
+    private final BoardSymmetry symmetry;           // Rotations and reflections of the board.
+    private final SymmetricHash hash;               // Zobrist hash of the position under every symmetry.
+    private final Evaluator evaluator;              // Score of positions at the depth limit.
+    private final MoveGenerator generator;          // Move ordering per ply.
+    private final TranspositionTable table;
+    private final int clockMask;                    // The clock is read every clockMask+1 nodes.
+
+    private int emptyCount;                         // Amount of empty tiles left.
+    private long nodes;                             // Nodes visited by the current search.
+    private long probes;                            // Transposition table lookups of the current search.
+    private long hits;                              // Lookups that found an entry.
+    private long deadline;                          // System.nanoTime() after which the search stops.
+    private boolean aborted;                        // Set once the deadline has passed.
+    private volatile boolean stopped;               // Set by stop() from another thread.
+
+    public AlphaBetaSearch(int size) {
+        this(size, size);
+    }
+
+    public AlphaBetaSearch(int size, int winLength) {
+        this(size, winLength, new TranspositionTable(tableSlots(size)));
+    }
+
+    // Create a search storing its results in a table that may be
+    // shared with searches on other threads.
+    AlphaBetaSearch(int size, int winLength, TranspositionTable table) {
+        this.size = size;
+        this.winLength = winLength;
+        this.cellCount = size*size;
+
+        tracker = new WinTracker(size, winLength);
+        cells = new int[cellCount];
+        evaluator = new Evaluator(tracker);
+        generator = new MoveGenerator(tracker, cells);
+
+        symmetry = BoardSymmetry.forSize(size);
+        hash = new SymmetricHash(symmetry);
+
+        this.table = table;
+        emptyCount = cellCount;
+
+        // A node on a big board takes long enough to read the clock every time.
+        clockMask = cellCount >= 64 ? 0 : 63;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    // Returns the size of a transposition table for boards of a size.
+    static int tableSlots(int size) {
+        return size <= 3 ? TABLE_SLOTS >> 6 : TABLE_SLOTS;
+    }
+
+    // Remove every piece from the search board and take back a stop().
+    // The transposition table is kept since its entries are keyed by position.
+    public void clear() {
+        stopped = false;
+        for(int i = 0; i < cellCount; i++) cells[i] = EMPTY;
+        tracker.reset();
+        evaluator.reset();
+        generator.clear();
+        hash.reset();
+        emptyCount = cellCount;
+    }
+
+    // Forget every stored search result.
+    public void clearTable() {
+        table.clear();
+    }
+
+    // Place a piece on the search board, used to set up a position.
+    public void place(int index, int player) {
+        if(cells[index] != EMPTY)
+            throw new IllegalArgumentException("Tile " + (index+1) + " already has a piece.");
+        make(index, player);
+    }
+
+    // Copy the pieces of a game onto the search board.
+    // The game must be played with the same rules as the search.
+    public void setPosition(GameState game) {
+        if(game.getSize() != size || game.getWinLength() != winLength)
+            throw new IllegalArgumentException("The game uses different rules than the search.");
+        clear();
+        for(int i = 0; i < cellCount; i++) {
+            if(!game.isEmpty(i)) make(i, game.get(i));
+        }
+    }
+
+    // Put a piece on the board and update the line counts and hash.
+    // Returns true if the move completed a line.
+    private boolean make(int cell, int player) {
+        cells[cell] = player;
+        hash.toggle(cell, player);
+        emptyCount--;
+        evaluator.place(cell, player);
+        boolean won = tracker.place(cell, player);
+        generator.update(cell, 1);
+        return won;
+    }
+
+    // Take back the last move made by make().
+    private void unmake(int cell, int player) {
+        cells[cell] = EMPTY;
+        hash.toggle(cell, player);
+        emptyCount++;
+        evaluator.undo();
+        tracker.undo();
+        generator.update(cell, -1);
+    }
+
+    // Find the best move for player within the time budget.
+    // Returns a SearchResult with a move of -1 if the board is full.
+    public SearchResult findBestMove(int player, long timeLimitMillis) {
+        return findBestMove(player, timeLimitMillis, MAX_PLY);
+    }
+
+    // Find the best move for player, searching no deeper than maxDepth.
+    // A fixed depth makes searches comparable, for benchmarks for example.
+    public SearchResult findBestMove(int player, long timeLimitMillis, int maxDepth) {
+        return findBestMove(player, timeLimitMillis, maxDepth, 1);
+    }
+
+    // Iterative deepening starting at firstDepth. Helper threads of a
+    // ParallelSearch start deeper than the main thread, so they fill
+    // the shared table ahead of it instead of repeating its work.
+    SearchResult findBestMove(int player, long timeLimitMillis, int maxDepth, int firstDepth) {
+        long start = System.nanoTime();
+        deadline = start + timeLimitMillis*1000000L;
+        aborted = false;
+        nodes = 0;
+        probes = 0;
+        hits = 0;
+
+        // Age the history heuristic so old cutoffs fade out.
+        generator.ageHistory();
+
+        int bestMove = -1;
+        int bestScore = 0;
+        int depthReached = 0;
+
+        // Iterative deepening: every iteration fills the table and
+        // the history heuristic so the next one is ordered better.
+        for(int depth = Math.min(firstDepth, Math.min(emptyCount, maxDepth)); depth <= Math.min(emptyCount, maxDepth); depth++) {
+            int[] result = searchRoot(depth, player);
+            if(aborted) {
+                // The previous best move is searched first, so a move of the
+                // unfinished iteration only wins by beating it at this depth.
+                if(result[2] > 0 && bestMove != -1) {
+                    bestMove = result[0];
+                    bestScore = result[1];
+                }
+                break;
+            }
+
+            bestMove = result[0];
+            bestScore = result[1];
+            depthReached = depth;
+
+            // A forced result will not change with a deeper search.
+            if(Math.abs(bestScore) >= WIN_SCORE - MAX_PLY) break;
+
+            // The next iteration takes longer than all before it together.
+            if(System.nanoTime() - start > (deadline - start) / 2) break;
+        }
+
+        // Even the first iteration did not finish, fall back to
+        // the first empty tile in move order.
+        if(bestMove == -1 && emptyCount > 0) {
+            int[] moves = generator.generate(0, player, -1);
+            bestMove = moves[0];
+        }
+
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+        return new SearchResult(bestMove, bestScore, depthReached, nodes, probes, hits, elapsed);
+    }
+
+    // Make a running search return as soon as possible, as if its
+    // time had run out, until the next clear(). Safe to call from
+    // any thread.
+    void stop() {
+        stopped = true;
+    }
+
+    private long probe(long key) {
+        probes++;
+        long entry = table.probe(key);
+        if(entry != 0) hits++;
+        return entry;
+    }
+
+    // Search every move at the root. Returns {bestMove, bestScore,
+    // amount of moves searched before an abort}.
+    private int[] searchRoot(int depth, int player) {
+        long key = BoardSymmetry.withToMove(hash.canonicalKey(), player);
+        int orientation = hash.canonicalSymmetry();
+        long entry = probe(key);
+        int tableMove = entry != 0 ? symmetry.inverse(orientation, TranspositionTable.move(entry)) : -1;
+        int[] moves = generator.generate(0, player, tableMove);
+        int moveCount = emptyCount;
+
+        int alpha = -INFINITY;
+        int bestMove = moves[0];
+        int searched = 0;
+        for(int i = 0; i < moveCount; i++) {
+            int move = moves[i];
+            int score;
+            if(make(move, player)) score = WIN_SCORE - 1;
+            else score = -negamax(depth-1, -INFINITY, -alpha, 3-player, 1);
+            unmake(move, player);
+
+            if(aborted) break;
+            searched++;
+            if(score > alpha) {
+                alpha = score;
+                bestMove = move;
+            }
+        }
+
+        if(!aborted) table.store(key, alpha, depth, TranspositionTable.EXACT, symmetry.transform(orientation, bestMove));
+        return new int[] {bestMove, alpha, searched};
+    }
+
+    // Negamax with alpha-beta pruning. Scores are from the view of
+    // the player to move; a win found at a lower ply scores higher.
+    private int negamax(int depth, int alpha, int beta, int player, int ply) {
+        nodes++;
+        if((nodes & clockMask) == 0 && (stopped || System.nanoTime() > deadline)) aborted = true;
+        if(aborted) return 0;
+
+        if(emptyCount == 0) return 0;   // draw
+        if(depth == 0) return evaluator.score(player);
+
+        int originalAlpha = alpha;
+        // The children overwrite the canonical symmetry, keep this one.
+        long key = BoardSymmetry.withToMove(hash.canonicalKey(), player);
+        int orientation = hash.canonicalSymmetry();
+        int tableMove = -1;
+        long entry = probe(key);
+        if(entry != 0) {
+            tableMove = symmetry.inverse(orientation, TranspositionTable.move(entry));
+            if(TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int flag = TranspositionTable.flag(entry);
+                if(flag == TranspositionTable.EXACT) return score;
+                if(flag == TranspositionTable.LOWER && score > alpha) alpha = score;
+                else if(flag == TranspositionTable.UPPER && score < beta) beta = score;
+                if(alpha >= beta) return score;
+            }
+        }
+
+        int[] moves = generator.generate(ply, player, tableMove);
+        int moveCount = emptyCount;
+        int bestScore = -INFINITY;
+        int bestMove = moves[0];
+
+        for(int i = 0; i < moveCount; i++) {
+            int move = moves[i];
+            int score;
+            if(make(move, player)) score = WIN_SCORE - ply - 1;
+            else score = -negamax(depth-1, -beta, -alpha, 3-player, ply+1);
+            unmake(move, player);
+
+            if(aborted) return 0;
+            if(score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+            if(score > alpha) alpha = score;
+            if(alpha >= beta) {
+                generator.rewardCutoff(move, depth);
+                break;
+            }
+        }
+
+        int flag;
+        if(bestScore <= originalAlpha) flag = TranspositionTable.UPPER;
+        else if(bestScore >= beta) flag = TranspositionTable.LOWER;
+        else flag = TranspositionTable.EXACT;
+        table.store(key, toTable(bestScore, ply), depth, flag, symmetry.transform(orientation, bestMove));
+
+        return bestScore;
+    }
+
+    // Win scores depend on the ply they were found at, so they are
+    // stored relative to the current position and restored on probe.
+    private static int toTable(int score, int ply) {
+        if(score >= WIN_SCORE - MAX_PLY) return score + ply;
+        if(score <= -WIN_SCORE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if(score >= WIN_SCORE - MAX_PLY) return score - ply;
+        if(score <= -WIN_SCORE + MAX_PLY) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,243 @@
+package tictactow;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/*
+ * BatchEvaluator scores large sets of positions at once, for training
+ * data, post-game analysis or puzzle generation. Every board gets its
+ * status (won by X, won by O, drawn or in progress) and, while the game
+ * is still going, the move the hard AI recommends with its score.
+ *
+ * Boards are encoded as text with one character per tile, row by row:
+ * '.' for empty, 'X' and 'O' for the pieces, the same as the BOARD
+ * message of the match server. The player to move follows from the
+ * piece counts since X moves first. Boards no game can reach, with
+ * counts that do not alternate or play after a win, are rejected.
+ *
+ * The work fans out over a private ForkJoinPool. Every worker thread
+ * keeps its own board and search engine, so nothing is allocated per
+ * board but the result, and the transposition table of a thread carries
+ * over from one board to the next. Boards are read ahead by a window of
+ * a few per thread and results are handed out in input order as soon
+ * as they are ready, so any amount of input streams through in constant
+ * memory.
+ *
+ * Usage: BatchEvaluator <size> [win length] [ms per board] < boards
+ *      Reads one board per line and prints one evaluation per line.
+ */
+public class BatchEvaluator implements Closeable {
+
+    private static final ForkJoinTask<Evaluation> END =       // Queued after the last board.
+        ForkJoinTask.adapt(() -> null);
+
+    private final long millisPerBoard;          // Search time per board.
+    private final int maxDepth;                 // Search depth per board.
+    private final ForkJoinPool pool;
+    private final int window;                   // Boards read ahead of the results.
+    private final ThreadLocal<Scratch> scratch; // Per thread board and search engine.
+
+    // Evaluate boards with a fixed search depth and time per board on every core.
+    public BatchEvaluator(GameEngine rules, long millisPerBoard, int maxDepth) {
+        this(rules, millisPerBoard, maxDepth, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchEvaluator(GameEngine rules, long millisPerBoard, int maxDepth, int parallelism) {
+        this.millisPerBoard = millisPerBoard;
+        this.maxDepth = maxDepth;
+        this.pool = new ForkJoinPool(parallelism);
+        this.window = 4*parallelism;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(rules));
+    }
+
+    // Evaluate every board, results are in the order of the boards.
+    public List<Evaluation> evaluate(Collection<String> boards) {
+        return evaluate(boards.stream());
+    }
+
+    // Evaluate a stream of boards, results are in the order of the stream.
+    public List<Evaluation> evaluate(Stream<String> boards) {
+        List<Evaluation> results = new ArrayList<>();
+        evaluate(boards.iterator(), results::add);
+        return results;
+    }
+
+    // Evaluate boards as they are read and hand every result to sink in
+    // the order of the boards, on the calling thread. The boards are read
+    // on a thread of their own, only a window of them ahead of the results,
+    // so a result is handed out as soon as it is ready even while the next
+    // board is still being typed or piped in.
+    public void evaluate(Iterator<String> boards, Consumer<Evaluation> sink) {
+        BlockingQueue<ForkJoinTask<Evaluation>> pending = new ArrayBlockingQueue<>(window);
+        AtomicReference<RuntimeException> readFailure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                try {
+                    while(boards.hasNext()) {
+                        String board = boards.next();
+                        pending.put(pool.submit(() -> evaluate(board)));
+                    }
+                } catch(RuntimeException ex) {
+                    readFailure.set(ex);
+                }
+                pending.put(END);
+            } catch(InterruptedException ex) {
+                // The results are no longer wanted.
+            }
+        }, "batch-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            ForkJoinTask<Evaluation> task;
+            while((task = pending.take()) != END) sink.accept(task.get());
+            if(readFailure.get() != null) throw readFailure.get();
+        } catch(InterruptedException ex) {
+            throw new RuntimeException(ex);
+        } catch(ExecutionException ex) {
+            // The pool rethrows a copy of the exception, caused by the original.
+            Throwable cause = ex.getCause();
+            if(cause.getCause() != null && cause.getCause().getClass() == cause.getClass()) cause = cause.getCause();
+            if(cause instanceof IllegalArgumentException) throw (IllegalArgumentException) cause;
+            throw new RuntimeException(cause);
+        } finally {
+            reader.interrupt();
+            for(ForkJoinTask<Evaluation> task : pending) task.cancel(true);
+        }
+    }
+
+    // Evaluate a single board on the calling thread.
+    public Evaluation evaluate(String board) {
+        return scratch.get().evaluate(board, millisPerBoard, maxDepth);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) {
+        if(args.length < 1) {
+            System.out.println("Usage: BatchEvaluator <size> [win length] [ms per board] < boards");
+            return;
+        }
+        int size = Integer.parseInt(args[0]);
+        int winLength = args.length > 1 ? Integer.parseInt(args[1]) : size;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        try(BatchEvaluator evaluator = new BatchEvaluator(new GameEngine(size, winLength), millis, AlphaBetaSearch.MAX_PLY)) {
+            evaluator.evaluate(in.lines().map(String::trim).filter(line -> !line.isEmpty()).iterator(), System.out::println);
+        } catch(IllegalArgumentException ex) {
+            System.out.println("Stopped at an invalid board: " + ex.getMessage());
+        }
+    }
+
+    // Scratch is the state one thread reuses for every board.
+    private static class Scratch {
+
+        private final Bitboard board;
+        private final AlphaBetaSearch search;
+
+        Scratch(GameEngine rules) {
+            board = Bitboard.create(BoardLines.forSize(rules.getSize(), rules.getWinLength()));
+            search = new AlphaBetaSearch(rules.getSize(), rules.getWinLength());
+        }
+
+        Evaluation evaluate(String encoded, long millisPerBoard, int maxDepth) {
+            int cellCount = board.getCellCount();
+            if(encoded.length() != cellCount)
+                throw new IllegalArgumentException("Board \"" + encoded + "\" does not have " + cellCount + " tiles.");
+
+            board.reset();
+            search.clear();
+            int xCount = 0, oCount = 0;
+            for(int i = 0; i < cellCount; i++) {
+                int piece = ".XO".indexOf(encoded.charAt(i));
+                if(piece == -1)
+                    throw new IllegalArgumentException("Board \"" + encoded + "\" has a tile other than '.', 'X' or 'O'.");
+                if(piece == GameState.EMPTY) continue;
+                board.set(i, piece);
+                search.place(i, piece);
+                if(piece == GameState.X) xCount++;
+                else oCount++;
+            }
+            if(xCount != oCount && xCount != oCount+1)
+                throw new IllegalArgumentException("Board \"" + encoded + "\" has " + xCount + " X and " + oCount + " O, X moves first and the players alternate.");
+            int toMove = xCount == oCount ? GameState.X : GameState.O;
+
+            // The game ends with the first line, made by the last player to move.
+            boolean xLine = board.hasLine(GameState.X);
+            boolean oLine = board.hasLine(GameState.O);
+            if((xLine && toMove == GameState.X) || (oLine && toMove == GameState.O))
+                throw new IllegalArgumentException("Board \"" + encoded + "\" has moves after the game was won.");
+
+            GameStatus status;
+            if(xLine) status = GameStatus.X_WON;
+            else if(oLine) status = GameStatus.O_WON;
+            else if(board.isFull()) status = GameStatus.DRAW;
+            else status = GameStatus.IN_PROGRESS;
+
+            if(status.isOver()) return new Evaluation(encoded, status, toMove, -1, 0);
+            SearchResult result = search.findBestMove(toMove, millisPerBoard, maxDepth);
+            return new Evaluation(encoded, status, toMove, result.getMove(), result.getScore());
+        }
+    }
+
+    // Evaluation is the result for one board.
+    public static class Evaluation {
+
+        private final String board;
+        private final GameStatus status;
+        private final int toMove;               // Player to move, X when the counts are equal.
+        private final int move;                 // Recommended tile, -1 once the game is over.
+        private final int score;                // Search score of the move for the player to move.
+
+        Evaluation(String board, GameStatus status, int toMove, int move, int score) {
+            this.board = board;
+            this.status = status;
+            this.toMove = toMove;
+            this.move = move;
+            this.score = score;
+        }
+
+        public String getBoard() {
+            return board;
+        }
+
+        public GameStatus getStatus() {
+            return status;
+        }
+
+        public int toMove() {
+            return toMove;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            if(status.isOver()) return board + " " + status;
+            return board + " " + (toMove == GameState.X ? 'X' : 'O') + " to move, best tile " + (move+1) + " (score " + score + ")";
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package tictactow;
+
+/*
+ * Bitboard is a packed representation of a tic-tac-toe board. Every
+ * player owns one bit per tile, so checking a line is an AND against a
+ * precomputed line mask and counting pieces is a popcount. Boards up to
+ * 8x8 fit into a single long per player (SmallBitboard), bigger boards
+ * use a long[] per player (LargeBitboard). Use create() to get the right one.
+ *
+ * Pieces are represented by integers: 0 is empty, 1 is X and 2 is O,
+ * which matches the ordinal of the BoardPiece enums.
+ *
+ * Lines and their numbering come from BoardLines.
+ */
+public abstract class Bitboard {
+
+    static final int EMPTY = 0;
+    static final int X = 1;
+    static final int O = 2;
+
+    protected final int size;           // The length and width of the board.
+    protected final int cellCount;      // The amount of tiles on the board.
+    protected final BoardLines lines;   // Winning lines the masks are built from.
+
+    protected Bitboard(BoardLines lines) {
+        this.size = lines.getSize();
+        this.cellCount = size*size;
+        this.lines = lines;
+    }
+
+    // Create the smallest bitboard that fits a size x size board
+    // where a full row, column or main diagonal wins.
+    public static Bitboard create(int size) {
+        return create(BoardLines.forSize(size));
+    }
+
+    // Create the smallest bitboard that fits the board of the given lines.
+    public static Bitboard create(BoardLines lines) {
+        int size = lines.getSize();
+        if(size*size <= 64) return new SmallBitboard(lines);
+        return new LargeBitboard(lines);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getLineCount() {
+        return lines.getLineCount();
+    }
+
+    // Returns the piece on a tile.
+    public abstract int get(int index);
+
+    // Put a piece of player (X or O) on a tile, replacing what was there.
+    public abstract void set(int index, int player);
+
+    // Remove the piece on a tile.
+    public abstract void remove(int index);
+
+    // Remove every piece on the board.
+    public abstract void reset();
+
+    // Returns the amount of pieces on the board.
+    public abstract int pieceCount();
+
+    // Returns true if player owns every tile of the line.
+    public abstract boolean ownsLine(int player, int line);
+
+    // Returns true if player owns every tile of any line.
+    public abstract boolean hasLine(int player);
+
+    // Returns true if one player owns every tile of the line.
+    public boolean isLineComplete(int line) {
+        return ownsLine(X, line) || ownsLine(O, line);
+    }
+
+    // Returns true if either player owns a complete line.
+    public boolean hasWinner() {
+        return hasLine(X) || hasLine(O);
+    }
+
+    // Returns true if every tile has a piece.
+    public boolean isFull() {
+        return pieceCount() == cellCount;
+    }
+
+    // Returns true if the tile has no piece.
+    public boolean isEmpty(int index) {
+        return get(index) == EMPTY;
+    }
+}
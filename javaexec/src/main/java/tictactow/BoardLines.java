@@ -0,0 +1,171 @@
+package tictactow;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * BoardLines describes the winning lines of a board: which tiles make up
+ * every line and which lines pass through every tile. A line is any
+ * window of winLength consecutive tiles along a row, a column or any
+ * diagonal in either direction, so a 15x15 board with a win length of 5
+ * plays like gomoku. With the default win length of size, the lines are
+ * exactly the rows, the columns and the two main diagonals.
+ *
+ * The geometry only depends on the size and win length, so one instance
+ * per combination is built and shared through forSize().
+ *
+ * Lines are numbered by direction: every horizontal window first, then
+ * vertical, then top left to bottom right and then top right to bottom
+ * left. Within a direction they are ordered by their first tile, so with a
+ * win length of size the rows are 0 to size-1, the columns size to
+ * 2*size-1 and the diagonals 2*size and 2*size+1.
+ */
+public final class BoardLines {
+
+    private static final ConcurrentHashMap<Long, BoardLines> CACHE = new ConcurrentHashMap<>();
+
+    // Row and column steps of the four directions.
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final int size;               // The length and width of the board.
+    private final int winLength;          // Amount of pieces in a row needed to win.
+    private final int[][] lines;          // Tiles of every line.
+    private final int[][] cellLines;      // Lines passing through every tile.
+    private volatile long[] masks;        // One bit mask per line, only for boards of up to 64 tiles.
+    private volatile WordMasks wordMasks; // Masks split into 64 bit words, for larger boards.
+
+    private BoardLines(int size, int winLength) {
+        this.size = size;
+        this.winLength = winLength;
+        int cellCount = size*size;
+
+        // Slide a window of winLength over every direction. The vertical
+        // windows are walked column by column so the full-line numbering
+        // lists the columns in order.
+        int windows = size - winLength + 1;
+        int lineCount = 2*size*windows + 2*windows*windows;
+        lines = new int[lineCount][];
+        int line = 0;
+        for(int[] direction : DIRECTIONS) {
+            int rowStep = direction[0], columnStep = direction[1];
+            for(int a = 0; a < size; a++) {
+                for(int b = 0; b < size; b++) {
+                    int row = rowStep == 1 && columnStep == 0 ? b : a;
+                    int column = rowStep == 1 && columnStep == 0 ? a : b;
+                    int endRow = row + rowStep*(winLength-1);
+                    int endColumn = column + columnStep*(winLength-1);
+                    if(endRow >= size || endColumn < 0 || endColumn >= size) continue;
+
+                    int[] cells = new int[winLength];
+                    for(int i = 0; i < winLength; i++) cells[i] = (row + rowStep*i)*size + column + columnStep*i;
+                    lines[line++] = cells;
+                }
+            }
+        }
+
+        // Invert the table so every tile knows its lines.
+        int[] linesPerCell = new int[cellCount];
+        for(int[] cells : lines) {
+            for(int cell : cells) linesPerCell[cell]++;
+        }
+        cellLines = new int[cellCount][];
+        for(int i = 0; i < cellCount; i++) cellLines[i] = new int[linesPerCell[i]];
+        int[] filled = new int[cellCount];
+        for(int l = 0; l < lineCount; l++) {
+            for(int cell : lines[l]) cellLines[cell][filled[cell]++] = l;
+        }
+    }
+
+    // Returns the shared line table of a board where a full row,
+    // column or main diagonal is needed to win.
+    public static BoardLines forSize(int size) {
+        return forSize(size, size);
+    }
+
+    // Returns the shared line table of a board size and win length.
+    public static BoardLines forSize(int size, int winLength) {
+        if(size < 1)
+            throw new IllegalArgumentException("Board size must be positive.");
+        if(winLength < 1 || winLength > size)
+            throw new IllegalArgumentException("Win length must be between 1 and the board size.");
+        return CACHE.computeIfAbsent(((long) size << 32) | winLength, key -> new BoardLines(size, winLength));
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getLineCount() {
+        return lines.length;
+    }
+
+    // Returns the amount of pieces needed on a line to win.
+    public int getLineLength() {
+        return winLength;
+    }
+
+    // Returns the tiles of a line. The array is shared, do not modify it.
+    public int[] cellsOf(int line) {
+        return lines[line];
+    }
+
+    // Returns the lines through a tile. The array is shared, do not modify it.
+    public int[] linesThrough(int cell) {
+        return cellLines[cell];
+    }
+
+    // Returns a bit mask per line for boards of up to 64 tiles.
+    // Built on first use and shared, do not modify it.
+    long[] singleWordMasks() {
+        long[] result = masks;
+        if(result == null) {
+            result = new long[lines.length];
+            for(int l = 0; l < lines.length; l++) {
+                for(int cell : lines[l]) result[l] |= 1L << cell;
+            }
+            masks = result;
+        }
+        return result;
+    }
+
+    // Returns the masks of every line split into the 64 bit words it
+    // touches, for boards of more than 64 tiles. Built on first use and
+    // shared, do not modify it.
+    WordMasks multiWordMasks() {
+        WordMasks result = wordMasks;
+        if(result == null) {
+            result = new WordMasks(this);
+            wordMasks = result;
+        }
+        return result;
+    }
+
+    // The line masks of a board stored in a long[] per player. Every line
+    // keeps only the words it passes through and its bits within them.
+    static final class WordMasks {
+
+        final int[][] words;            // Word indices touched by every line.
+        final long[][] bits;            // Bits of the line within each of those words.
+
+        private WordMasks(BoardLines lines) {
+            int wordCount = (lines.size*lines.size + 63) >>> 6;
+            int lineCount = lines.getLineCount();
+            words = new int[lineCount][];
+            bits = new long[lineCount][];
+            for(int line = 0; line < lineCount; line++) {
+                long[] full = new long[wordCount];
+                for(int cell : lines.cellsOf(line)) full[cell >>> 6] |= 1L << cell;
+
+                int used = 0;
+                for(long word : full) if(word != 0) used++;
+                words[line] = new int[used];
+                bits[line] = new long[used];
+                for(int w = 0, i = 0; w < wordCount; w++) {
+                    if(full[w] == 0) continue;
+                    words[line][i] = w;
+                    bits[line][i] = full[w];
+                    i++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package tictactow;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/*
+ * BoardRenderer draws the board for the console games. Each frame is
+ * built in one reused buffer and written with a single print and flush,
+ * instead of one unbuffered write per tile.
+ *
+ * In ANSI mode, turned on with -Dtictactow.ansi=true, the board stays at
+ * the top of the terminal and everything printed afterwards scrolls in
+ * the region below it. Later frames of the same game then only move the
+ * cursor to the tiles that changed and rewrite those.
+ */
+public class BoardRenderer {
+
+    static final String ANSI_PROPERTY = "tictactow.ansi";
+
+    private static final String ESC = "\u001B[";
+    private static final String NEWLINE = System.lineSeparator();
+
+    private static BoardRenderer console;       // Shared by the console games.
+
+    private final PrintStream out;
+    private final boolean ansi;                 // Redraw only changed tiles.
+    private final StringBuilder frame = new StringBuilder();    // Reused for every frame.
+    private String separator = "";              // Line between rows for the current size.
+    private GameState drawn;                    // Game on screen in ANSI mode, null for none.
+    private int[] shown = new int[0];           // Pieces on screen in ANSI mode.
+
+    public BoardRenderer(PrintStream out, boolean ansi) {
+        this.out = out;
+        this.ansi = ansi;
+    }
+
+    // Returns the renderer of standard output, in ANSI mode
+    // if the tictactow.ansi property is true.
+    public static synchronized BoardRenderer console() {
+        if(console == null) console = new BoardRenderer(System.out, Boolean.getBoolean(ANSI_PROPERTY));
+        return console;
+    }
+
+    // Draw the board of game.
+    public void render(GameState game) {
+        frame.setLength(0);
+        if(ansi && game == drawn && shown.length == game.getCellCount()) appendChanges(game);
+        else if(ansi) appendScreen(game);
+        else appendBoard(game);
+        out.print(frame);
+        out.flush();
+    }
+
+    // Give the whole terminal back, once the game is over.
+    public void release() {
+        if(drawn == null) return;
+        drawn = null;
+        out.print(ESC + "r" + ESC + "999;1H");
+        out.flush();
+    }
+
+    private void appendBoard(GameState game) {
+        int size = game.getSize();
+        if(separator.length() != 2*size-1) {
+            char[] line = new char[2*size-1];
+            Arrays.fill(line, '-');
+            separator = new String(line);
+        }
+
+        frame.append(NEWLINE);
+        for(int i = 0; i < game.getCellCount(); i++) {
+            frame.append(symbol(game.get(i)));
+
+            // if the tile is at the end of the board
+            // add a separator line.
+            if((i+1) % size == 0) frame.append(NEWLINE).append(separator).append(NEWLINE);
+            else frame.append('|');
+        }
+        frame.append(NEWLINE);
+    }
+
+    // Clear the terminal, draw the board at the top and let the
+    // rest of the output scroll below it.
+    private void appendScreen(GameState game) {
+        frame.append(ESC).append("r").append(ESC).append("2J").append(ESC).append("H");
+        appendBoard(game);
+        int height = 2*game.getSize() + 2;      // Blank line, rows with separators, blank line.
+        frame.append(ESC).append(height+1).append('r');
+        frame.append(ESC).append(height+1).append(";1H");
+
+        drawn = game;
+        if(shown.length != game.getCellCount()) shown = new int[game.getCellCount()];
+        for(int i = 0; i < shown.length; i++) shown[i] = game.get(i);
+    }
+
+    // Rewrite the tiles that changed since the last frame and
+    // put the cursor back where it was.
+    private void appendChanges(GameState game) {
+        int size = game.getSize();
+        frame.append("\u001B7");
+        for(int i = 0; i < shown.length; i++) {
+            int piece = game.get(i);
+            if(piece == shown[i]) continue;
+            shown[i] = piece;
+            frame.append(ESC).append(2 + 2*(i / size)).append(';').append(1 + 2*(i % size)).append('H');
+            frame.append(symbol(piece));
+        }
+        frame.append("\u001B8");
+    }
+
+    private static char symbol(int piece) {
+        if(piece == GameState.X) return 'X';
+        if(piece == GameState.O) return 'O';
+        return ' ';
+    }
+}
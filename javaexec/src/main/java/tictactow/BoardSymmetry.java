@@ -0,0 +1,153 @@
+package tictactow;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * BoardSymmetry holds the 8 symmetries of a square board, the four
+ * rotations and their mirror images, together with the Zobrist keys used
+ * to hash positions. Every symmetry maps winning lines onto winning lines
+ * for any win length, so positions that are rotations or reflections of
+ * each other have the same value and can share one cache entry.
+ *
+ * The canonical key of a position is the smallest of its 8 symmetric
+ * Zobrist hashes. SymmetricHash keeps those 8 hashes up to date move by
+ * move, canonicalKey() computes them from scratch for a whole game.
+ *
+ * One instance per board size is built and shared through forSize().
+ */
+public final class BoardSymmetry {
+
+    static final int COUNT = 8;             // Amount of symmetries of a square.
+    static final int IDENTITY = 0;          // Symmetry that leaves every tile in place.
+    static final long O_TO_MOVE = 0xd6e8feb86659fd93L;  // Key of O being the player to move.
+
+    private static final ConcurrentHashMap<Integer, BoardSymmetry> CACHE = new ConcurrentHashMap<>();
+
+    private final int size;                 // The length and width of the board.
+    private final int cellCount;            // The amount of tiles on the board.
+    private final int[][] forward;          // Tile each tile moves to under a symmetry.
+    private final int[][] backward;         // Tile each tile came from under a symmetry.
+    private final long[][] keys;            // Zobrist key per symmetry, indexed by player*cellCount + tile.
+
+    private BoardSymmetry(int size) {
+        this.size = size;
+        this.cellCount = size*size;
+        int last = size-1;
+
+        forward = new int[COUNT][cellCount];
+        backward = new int[COUNT][cellCount];
+        for(int row = 0; row < size; row++) {
+            for(int column = 0; column < size; column++) {
+                int[] images = {
+                    row*size + column,                  // identity
+                    column*size + last-row,             // rotate 90
+                    (last-row)*size + last-column,      // rotate 180
+                    (last-column)*size + row,           // rotate 270
+                    row*size + last-column,             // mirror left to right
+                    (last-row)*size + column,           // mirror top to bottom
+                    column*size + row,                  // mirror on the main diagonal
+                    (last-column)*size + last-row       // mirror on the anti-diagonal
+                };
+                int cell = row*size + column;
+                for(int s = 0; s < COUNT; s++) {
+                    forward[s][cell] = images[s];
+                    backward[s][images[s]] = cell;
+                }
+            }
+        }
+
+        // A fixed seed keeps hashes reproducible between runs. The keys of
+        // a symmetry are the identity keys of the tiles it maps onto, so
+        // hashing through a symmetry hashes the transformed board.
+        SplittableRandom random = new SplittableRandom(0x7A3C9E1DL);
+        long[] identity = new long[3*cellCount];
+        for(int i = 0; i < cellCount; i++) {
+            identity[AlphaBetaSearch.X*cellCount + i] = random.nextLong();
+            identity[AlphaBetaSearch.O*cellCount + i] = random.nextLong();
+        }
+        keys = new long[COUNT][3*cellCount];
+        for(int s = 0; s < COUNT; s++) {
+            for(int player = AlphaBetaSearch.X; player <= AlphaBetaSearch.O; player++) {
+                for(int cell = 0; cell < cellCount; cell++) {
+                    keys[s][player*cellCount + cell] = identity[player*cellCount + forward[s][cell]];
+                }
+            }
+        }
+    }
+
+    // Returns the shared symmetries of a board size.
+    public static BoardSymmetry forSize(int size) {
+        if(size < 1)
+            throw new IllegalArgumentException("Board size must be positive.");
+        return CACHE.computeIfAbsent(size, BoardSymmetry::new);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Returns the tile a tile moves to under a symmetry.
+    public int transform(int symmetry, int cell) {
+        return forward[symmetry][cell];
+    }
+
+    // Returns the tile that moves onto a tile under a symmetry.
+    public int inverse(int symmetry, int cell) {
+        return backward[symmetry][cell];
+    }
+
+    // Returns the Zobrist key of a piece on a tile as seen through a symmetry.
+    public long key(int symmetry, int player, int cell) {
+        return keys[symmetry][player*cellCount + cell];
+    }
+
+    // Keys of one symmetry indexed by player*size*size + tile, for
+    // callers updating hashes in their inner loop. Do not modify it.
+    long[] keys(int symmetry) {
+        return keys[symmetry];
+    }
+
+    // Returns key with the player to move mixed in. The same board can
+    // be reached with either player to move, after a pass or when O
+    // moved first, and is worth something different to each of them.
+    static long withToMove(long key, int player) {
+        return player == AlphaBetaSearch.O ? key ^ O_TO_MOVE : key;
+    }
+
+    // Returns the canonical key of a game, the same for every
+    // rotation and reflection of its board.
+    public long canonicalKey(GameState game) {
+        return canonicalKey(game, null);
+    }
+
+    // Returns the symmetry that maps a game onto its canonical board.
+    // Moves of the game map into the canonical board with transform()
+    // and back with inverse().
+    public int canonicalSymmetry(GameState game) {
+        int[] symmetry = new int[1];
+        canonicalKey(game, symmetry);
+        return symmetry[0];
+    }
+
+    // Returns the canonical key and stores its symmetry in symmetry[0]
+    // when symmetry is not null, one pass for callers needing both.
+    long canonicalKey(GameState game, int[] symmetry) {
+        if(game.getSize() != size)
+            throw new IllegalArgumentException("The game is played on a different board size.");
+
+        long best = 0;
+        for(int s = 0; s < COUNT; s++) {
+            long hash = 0;
+            for(int cell = 0; cell < cellCount; cell++) {
+                int piece = game.get(cell);
+                if(piece != AlphaBetaSearch.EMPTY) hash ^= keys[s][piece*cellCount + cell];
+            }
+            if(s == 0 || Long.compareUnsigned(hash, best) < 0) {
+                best = hash;
+                if(symmetry != null) symmetry[0] = s;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,87 @@
+package tictactow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ConsoleInput is the only reader of System.in in the process. A single
+ * daemon thread reads lines and hands them to whoever is waiting, in the
+ * order they were typed. Since there is only one BufferedReader, no part of
+ * the program can steal bytes buffered by another, and waiting for input
+ * with a time limit needs no extra threads.
+ *
+ * Like BufferedReader.readLine(), the methods return null once the end of
+ * the input is reached and throw the IOException the reader ran into.
+ */
+public final class ConsoleInput {
+
+    private static final Object END = new Object();                 // Marks the end of the input.
+    private static final BlockingQueue<Object> lines =              // Lines read but not yet taken,
+        new LinkedBlockingQueue<>();                                // ending with END or an IOException.
+    private static boolean started;                                 // Set once the reader thread runs.
+
+    private ConsoleInput() {
+    }
+
+    // Start the reader thread the first time input is needed.
+    private static synchronized void start() {
+        if(started) return;
+        started = true;
+
+        Thread thread = new Thread(() -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+            try {
+                String line;
+                while((line = reader.readLine()) != null) lines.add(line);
+                lines.add(END);
+            } catch(IOException ex) {
+                lines.add(ex);
+            }
+        }, "console-input");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Block until a line is typed.
+    // Returns null once the end of the input is reached.
+    public static String readLine() throws IOException {
+        start();
+        try {
+            return unwrap(lines.take());
+        } catch(InterruptedException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    // Wait at most timeout for a line to be typed. Returns null if no
+    // line arrived in time or the end of the input is reached, use
+    // isClosed() to tell the two apart.
+    public static String pollLine(long timeout, TimeUnit unit) throws IOException {
+        start();
+        try {
+            return unwrap(lines.poll(timeout, unit));
+        } catch(InterruptedException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    // Returns true once every line has been taken and the input ended.
+    public static boolean isClosed() {
+        return lines.peek() == END;
+    }
+
+    // Turn a queue entry into a line. The end marker and errors are
+    // put back so every later call sees them as well.
+    private static String unwrap(Object entry) throws IOException {
+        if(entry == null) return null;
+        if(entry instanceof String) return (String) entry;
+
+        lines.add(entry);
+        if(entry == END) return null;
+        throw (IOException) entry;
+    }
+}
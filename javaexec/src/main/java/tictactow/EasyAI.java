@@ -0,0 +1,26 @@
+package tictactow;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * EasyAI places its pieces randomly.
+ */
+public class EasyAI implements AIPlayer {
+
+    @Override
+    public int chooseMove(GameState game) {
+        if(game.isOver() || game.getPieceCount() == game.getCellCount()) return -1;
+
+        // Pick one of the empty tiles, so a nearly full
+        // board needs no retries.
+        int skip = ThreadLocalRandom.current().nextInt(game.getCellCount() - game.getPieceCount());
+        for(int position = 0; ; position++) {
+            if(game.isEmpty(position) && skip-- == 0) return position;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "easy";
+    }
+}
@@ -0,0 +1,349 @@
+package tictactow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * EndgameSolver solves full line tic-tac-toe on boards up to 4x4 with
+ * retrograde analysis. Positions are solved one piece count at a time,
+ * starting with the full board and working back to the empty one, so
+ * every move of a position leads to a level that is already solved and
+ * its result is one read from the store.
+ *
+ * The store is a file mapped into memory with 2 bits per base 3 board
+ * code: 0 unsolved, or WIN, DRAW or LOSS for the player to move as in
+ * Tablebase. Only the canonical code of every position, the smallest over
+ * the 8 rotations and reflections, is solved and read. The header records
+ * the lowest piece count solved so far. It is written after the results of
+ * a level have reached the disk, so a solve that is interrupted resumes
+ * with the level it was working on when the store is opened again.
+ *
+ * X moves first and the side to move follows from the piece counts,
+ * positions reached through passed turns are not covered. A solver is
+ * used by one thread at a time.
+ *
+ * File layout: magic, board size, lowest solved piece count, then the
+ * results of 4 codes per byte, lowest code in the lowest bits.
+ *
+ * Usage: EndgameSolver [file] [size]
+ */
+public final class EndgameSolver implements Closeable {
+
+    static final int MAX_SIZE = 4;              // 3^25 codes of a 5x5 board do not fit a store.
+
+    private static final int MAGIC = 0x54545232;                // "TTR2"
+    private static final int HEADER = 12;                       // Bytes before the first result.
+
+    private final int size;                     // The length and width of the board.
+    private final int cellCount;
+    private final int[][] powers;               // powers[s][i] is 3 to the tile i moves to under symmetry s.
+    private final int[] lineMasks;              // One bit per tile of every winning line.
+    private final FileChannel channel;
+    private final MappedByteBuffer store;       // Header and results, read and written in place.
+
+    private int solvedFrom;                     // Lowest piece count with every position solved.
+    private long positions;                     // Positions solved since the store was opened.
+    private long solveNanos;                    // Time spent solving since the store was opened.
+
+    // Scratch state of the level being solved.
+    private final int[] codes = new int[BoardSymmetry.COUNT];
+    private int xMask, oMask;
+
+    private EndgameSolver(int size, FileChannel channel, MappedByteBuffer store) {
+        this.size = size;
+        this.cellCount = size*size;
+        this.channel = channel;
+        this.store = store;
+
+        BoardSymmetry symmetry = BoardSymmetry.forSize(size);
+        powers = new int[BoardSymmetry.COUNT][cellCount];
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) {
+            for(int i = 0; i < cellCount; i++) powers[s][i] = pow3(symmetry.transform(s, i));
+        }
+
+        BoardLines lines = BoardLines.forSize(size);
+        lineMasks = new int[lines.getLineCount()];
+        for(int line = 0; line < lineMasks.length; line++) {
+            for(int cell : lines.cellsOf(line)) lineMasks[line] |= 1 << cell;
+        }
+
+        solvedFrom = store.getInt(8);
+    }
+
+    // Open the store of a board size, creating it if the file does not
+    // exist. A store left by an interrupted solve is picked up where it was.
+    public static EndgameSolver open(Path file, int size) throws IOException {
+        if(size < 3 || size > MAX_SIZE)
+            throw new IllegalArgumentException("The solver covers boards from 3x3 to " + MAX_SIZE + "x" + MAX_SIZE + ".");
+
+        long length = HEADER + (pow3(size*size) + 3) / 4;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long existing = channel.size();
+            if(existing != 0 && existing != length)
+                throw new IOException(file + " is not a " + size + "x" + size + " endgame store.");
+
+            // A new file is mapped filled with zeros, every result unsolved.
+            MappedByteBuffer store = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            if(existing == 0) {
+                store.putInt(0, MAGIC);
+                store.putInt(4, size);
+                store.putInt(8, size*size + 1);
+                store.force();
+            }
+            else if(store.getInt(0) != MAGIC || store.getInt(4) != size) {
+                throw new IOException(file + " is not a " + size + "x" + size + " endgame store.");
+            }
+            return new EndgameSolver(size, channel, store);
+        } catch(IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Returns true once the empty board is solved.
+    public boolean isSolved() {
+        return solvedFrom == 0;
+    }
+
+    // Returns the lowest piece count whose positions are all solved,
+    // one more than the amount of tiles before the solve started.
+    public int getSolvedFrom() {
+        return solvedFrom;
+    }
+
+    // Returns the amount of positions solved since the store was opened.
+    public long getPositions() {
+        return positions;
+    }
+
+    public double getPositionsPerSecond() {
+        if(solveNanos == 0) return 0;
+        return positions * 1e9 / solveNanos;
+    }
+
+    // Returns the size of the store file in bytes, all of it mapped.
+    public long getStoreBytes() {
+        return store.capacity();
+    }
+
+    // Solve every level that is left.
+    public void solve() {
+        solve(cellCount + 1);
+    }
+
+    // Solve at most levels more piece counts, so a solve can be split
+    // over several runs. Returns true once the empty board is solved.
+    public boolean solve(int levels) {
+        while(levels-- > 0 && solvedFrom > 0) solveLevel(solvedFrom - 1);
+        return isSolved();
+    }
+
+    // Solve every canonical position with pieces on the board, then
+    // record the level as done once its results are on the disk.
+    private void solveLevel(int pieces) {
+        long start = System.nanoTime();
+        xMask = 0;
+        oMask = 0;
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) codes[s] = 0;
+        solvePositions(0, (pieces+1) / 2, pieces / 2, pieces % 2 == 0 ? GameState.X : GameState.O);
+        store.force();
+
+        solvedFrom = pieces;
+        store.putInt(8, solvedFrom);
+        store.force();
+        solveNanos += System.nanoTime() - start;
+    }
+
+    // Place the pieces left from cell on, in every possible way, and
+    // solve the canonical boards this gives.
+    private void solvePositions(int cell, int xLeft, int oLeft, int toMove) {
+        if(xLeft == 0 && oLeft == 0) {
+            if(isCanonical()) {
+                write(codes[BoardSymmetry.IDENTITY], solvePosition(toMove));
+                positions++;
+            }
+            return;
+        }
+        if(cellCount - cell < xLeft + oLeft) return;
+
+        solvePositions(cell+1, xLeft, oLeft, toMove);
+        if(xLeft > 0) {
+            place(cell, GameState.X);
+            solvePositions(cell+1, xLeft-1, oLeft, toMove);
+            remove(cell, GameState.X);
+        }
+        if(oLeft > 0) {
+            place(cell, GameState.O);
+            solvePositions(cell+1, xLeft, oLeft-1, toMove);
+            remove(cell, GameState.O);
+        }
+    }
+
+    // Returns the result of the current board for the player to move,
+    // with every position one piece further already solved.
+    private int solvePosition(int toMove) {
+        int mine = toMove == GameState.X ? xMask : oMask;
+        int theirs = toMove == GameState.X ? oMask : xMask;
+
+        // The opponent completed a line with the last move. A board where
+        // the player to move has a line is never reached, it counts as won.
+        if(hasLine(theirs)) return Tablebase.LOSS;
+        if(hasLine(mine)) return Tablebase.WIN;
+
+        boolean drawn = false;
+        int occupied = xMask | oMask;
+        for(int move = 0; move < cellCount; move++) {
+            if((occupied & 1 << move) != 0) continue;
+            int reply = read(childCode(move, toMove));
+            if(reply == 0) throw new IllegalStateException("Position after tile " + (move+1) + " is not solved.");
+            if(reply == Tablebase.LOSS) return Tablebase.WIN;
+            if(reply == Tablebase.DRAW) drawn = true;
+        }
+
+        // A full board is a draw, otherwise every move leads to a win
+        // of the opponent unless one of them holds the draw.
+        if(occupied == (1 << cellCount) - 1 || drawn) return Tablebase.DRAW;
+        return Tablebase.LOSS;
+    }
+
+    // Returns the canonical code of the current board with a piece of
+    // player added on move.
+    private int childCode(int move, int player) {
+        int best = Integer.MAX_VALUE;
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) {
+            int code = codes[s] + player*powers[s][move];
+            if(code < best) best = code;
+        }
+        return best;
+    }
+
+    private boolean isCanonical() {
+        return canonicalCode() == codes[BoardSymmetry.IDENTITY];
+    }
+
+    // Returns the smallest code of the current board.
+    private int canonicalCode() {
+        int best = codes[0];
+        for(int s = 1; s < BoardSymmetry.COUNT; s++) {
+            if(codes[s] < best) best = codes[s];
+        }
+        return best;
+    }
+
+    private boolean hasLine(int mask) {
+        for(int line : lineMasks) {
+            if((mask & line) == line) return true;
+        }
+        return false;
+    }
+
+    private void place(int cell, int player) {
+        if(player == GameState.X) xMask |= 1 << cell;
+        else oMask |= 1 << cell;
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) codes[s] += player*powers[s][cell];
+    }
+
+    private void remove(int cell, int player) {
+        if(player == GameState.X) xMask &= ~(1 << cell);
+        else oMask &= ~(1 << cell);
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) codes[s] -= player*powers[s][cell];
+    }
+
+    private int read(int code) {
+        return store.get(HEADER + (code >>> 2)) >>> ((code & 3) * 2) & 3;
+    }
+
+    private void write(int code, int result) {
+        int index = HEADER + (code >>> 2);
+        int shift = (code & 3) * 2;
+        store.put(index, (byte) (store.get(index) & ~(3 << shift) | result << shift));
+    }
+
+    // Returns WIN, DRAW or LOSS for the player to move in game,
+    // or 0 if the position is not solved or not covered.
+    public int result(GameState game) {
+        if(!covers(game)) return 0;
+        if(game.getPieceCount() < solvedFrom) return 0;
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) codes[s] = 0;
+        for(int i = 0; i < cellCount; i++) {
+            if(game.isEmpty(i)) continue;
+            for(int s = 0; s < BoardSymmetry.COUNT; s++) codes[s] += game.get(i)*powers[s][i];
+        }
+        return read(canonicalCode());
+    }
+
+    // Returns the tile with the best result for the player to move in
+    // game, or -1 if the game is over or the position is not solved.
+    public int bestMove(GameState game) {
+        if(game.isOver() || result(game) == 0) return -1;
+
+        // result() left the codes of the game behind.
+        int bestMove = -1, best = 0;
+        for(int move = 0; move < cellCount; move++) {
+            if(!game.isEmpty(move)) continue;
+            int reply = read(childCode(move, game.toMove()));
+            int score = reply == Tablebase.LOSS ? 3 : reply == Tablebase.DRAW ? 2 : 1;
+            if(score > best) {
+                best = score;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    // Returns true if the store holds positions of game: full line rules
+    // on its board size, with the turn following from the piece counts.
+    private boolean covers(GameState game) {
+        if(game.getSize() != size || game.getWinLength() != size) return false;
+        return game.toMove() == (game.getPieceCount() % 2 == 0 ? GameState.X : GameState.O);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int pow3(int exponent) {
+        int result = 1;
+        for(int i = 0; i < exponent; i++) result *= 3;
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : MAX_SIZE;
+        Path file = args.length > 0 ? Paths.get(args[0]) : Paths.get(System.getProperty("java.io.tmpdir"), "tictactow-" + size + "x" + size + ".endgame");
+
+        try(EndgameSolver solver = EndgameSolver.open(file, size)) {
+            if(solver.getSolvedFrom() <= size*size)
+                System.out.println("Resuming " + file + " at " + (solver.getSolvedFrom() - 1) + " pieces.");
+
+            Runtime runtime = Runtime.getRuntime();
+            while(!solver.isSolved()) {
+                int pieces = solver.getSolvedFrom() - 1;
+                long before = solver.getPositions();
+                long start = System.nanoTime();
+                solver.solve(1);
+                long nanos = Math.max(1, System.nanoTime() - start);
+                long count = solver.getPositions() - before;
+                long heap = runtime.totalMemory() - runtime.freeMemory();
+                System.out.printf("%2d pieces: %,10d positions in %,6d ms, %,.0f positions/s, heap %,d KB, store %,d KB%n",
+                    pieces, count, nanos / 1000000L, count * 1e9 / nanos, heap / 1024, solver.getStoreBytes() / 1024);
+            }
+
+            String[] names = {"unsolved", "won", "drawn", "lost"};
+            System.out.printf("%dx%d is %s for X. Solved %,d positions at %,.0f positions/s into %s.%n",
+                size, size, names[solver.result(new GameEngine(size).newGame())], solver.getPositions(),
+                solver.getPositionsPerSecond(), file);
+        }
+    }
+}
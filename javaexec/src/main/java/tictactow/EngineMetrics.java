@@ -0,0 +1,198 @@
+package tictactow;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/*
+ * EngineMetrics keeps latency histograms of the game engine: how long the
+ * AI thinks per move and how many nodes or playouts it searched, how long
+ * placing a piece and checking it for a win takes, how long humans wait
+ * before placing a piece, and how many AI moves met or missed their
+ * deadline.
+ *
+ * The shared instance is registered with the platform MBean server, so
+ * jconsole or any JMX client can watch it while games are played. With
+ * -Dtictactow.metrics.dump=<seconds> it is also written to standard error
+ * at that interval.
+ */
+public class EngineMetrics implements EngineMetricsMBean {
+
+    static final String OBJECT_NAME = "tictactow:type=EngineMetrics";
+    static final String DUMP_PROPERTY = "tictactow.metrics.dump";  // Seconds between text dumps.
+
+    private static EngineMetrics shared;        // Created and registered on first use.
+
+    private final LatencyHistogram aiThink = new LatencyHistogram();        // Nanoseconds per AI move.
+    private final LatencyHistogram nodes = new LatencyHistogram();          // Nodes or playouts per AI move.
+    private final LatencyHistogram victoryCheck = new LatencyHistogram();   // Nanoseconds per placement and its win check.
+    private final LatencyHistogram humanWait = new LatencyHistogram();      // Nanoseconds per human turn.
+    private final AtomicLong deadlinesMet = new AtomicLong();               // AI moves made in time.
+    private final AtomicLong deadlinesMissed = new AtomicLong();            // AI moves that took too long.
+
+    // Returns the instance the game records to, registering it with JMX
+    // and starting the periodic dump on first use.
+    public static synchronized EngineMetrics shared() {
+        if(shared == null) {
+            shared = new EngineMetrics();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(shared, new ObjectName(OBJECT_NAME));
+            } catch(JMException ex) {
+                // Metrics are still recorded, only not visible through JMX.
+            }
+            startDump(shared, Long.getLong(DUMP_PROPERTY, 0));
+        }
+        return shared;
+    }
+
+    private static void startDump(EngineMetrics metrics, long seconds) {
+        if(seconds <= 0) return;
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(() -> System.err.println(metrics.dump()), seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    // Record an AI move that took nanos and searched the given amount
+    // of nodes or playouts, 0 for moves that needed no search.
+    public void recordAIMove(long nanos, long searched) {
+        aiThink.record(nanos);
+        nodes.record(searched);
+    }
+
+    public void recordVictoryCheck(long nanos) {
+        victoryCheck.record(nanos);
+    }
+
+    public void recordHumanWait(long nanos) {
+        humanWait.record(nanos);
+    }
+
+    // Record whether an AI move was made before its deadline.
+    public void recordDeadline(boolean met) {
+        if(met) deadlinesMet.incrementAndGet();
+        else deadlinesMissed.incrementAndGet();
+    }
+
+    public LatencyHistogram getAIThink() {
+        return aiThink;
+    }
+
+    public LatencyHistogram getNodes() {
+        return nodes;
+    }
+
+    public LatencyHistogram getVictoryCheck() {
+        return victoryCheck;
+    }
+
+    public LatencyHistogram getHumanWait() {
+        return humanWait;
+    }
+
+    @Override
+    public long getAIMoveCount() {
+        return aiThink.getCount();
+    }
+
+    @Override
+    public long getAIThinkMicrosP50() {
+        return aiThink.valueAtPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getAIThinkMicrosP99() {
+        return aiThink.valueAtPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getAIThinkMicrosMax() {
+        return aiThink.getMax() / 1000;
+    }
+
+    @Override
+    public long getNodesPerMoveP50() {
+        return nodes.valueAtPercentile(50);
+    }
+
+    @Override
+    public long getNodesPerMoveP99() {
+        return nodes.valueAtPercentile(99);
+    }
+
+    @Override
+    public long getNodesPerMoveMax() {
+        return nodes.getMax();
+    }
+
+    @Override
+    public long getVictoryCheckCount() {
+        return victoryCheck.getCount();
+    }
+
+    @Override
+    public long getVictoryCheckMicrosP99() {
+        return victoryCheck.valueAtPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getVictoryCheckMicrosMax() {
+        return victoryCheck.getMax() / 1000;
+    }
+
+    @Override
+    public long getHumanTurnCount() {
+        return humanWait.getCount();
+    }
+
+    @Override
+    public long getHumanWaitMicrosP50() {
+        return humanWait.valueAtPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getHumanWaitMicrosP99() {
+        return humanWait.valueAtPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getHumanWaitMicrosMax() {
+        return humanWait.getMax() / 1000;
+    }
+
+    @Override
+    public long getDeadlinesMet() {
+        return deadlinesMet.get();
+    }
+
+    @Override
+    public long getDeadlinesMissed() {
+        return deadlinesMissed.get();
+    }
+
+    @Override
+    public String dump() {
+        return "AI think:      " + aiThink.summary(1e6, "ms") + "\n"
+            + "Nodes/move:    " + nodes.summary(1, "") + "\n"
+            + "Victory check: " + victoryCheck.summary(1e3, "us") + "\n"
+            + "Human wait:    " + humanWait.summary(1e6, "ms") + "\n"
+            + "Deadlines:     " + deadlinesMet.get() + " met, " + deadlinesMissed.get() + " missed";
+    }
+
+    @Override
+    public void reset() {
+        aiThink.reset();
+        nodes.reset();
+        victoryCheck.reset();
+        humanWait.reset();
+        deadlinesMet.set(0);
+        deadlinesMissed.set(0);
+    }
+}
@@ -0,0 +1,46 @@
+package tictactow;
+
+/*
+ * EngineMetricsMBean is the JMX view of EngineMetrics, registered as
+ * tictactow:type=EngineMetrics. Times are in microseconds.
+ */
+public interface EngineMetricsMBean {
+
+    long getAIMoveCount();
+
+    long getAIThinkMicrosP50();
+
+    long getAIThinkMicrosP99();
+
+    long getAIThinkMicrosMax();
+
+    long getNodesPerMoveP50();
+
+    long getNodesPerMoveP99();
+
+    long getNodesPerMoveMax();
+
+    long getVictoryCheckCount();
+
+    long getVictoryCheckMicrosP99();
+
+    long getVictoryCheckMicrosMax();
+
+    long getHumanTurnCount();
+
+    long getHumanWaitMicrosP50();
+
+    long getHumanWaitMicrosP99();
+
+    long getHumanWaitMicrosMax();
+
+    long getDeadlinesMet();
+
+    long getDeadlinesMissed();
+
+    // Returns every histogram as text.
+    String dump();
+
+    // Forget every recorded value.
+    void reset();
+}
@@ -0,0 +1,76 @@
+package tictactow;
+
+import java.util.Arrays;
+
+/*
+ * Evaluator scores positions the search can not play out to the end.
+ * Every line only one player has pieces on is still open for that player
+ * and is worth more the more pieces it already holds: one piece is worth
+ * 1, every further piece multiplies the worth by 8. The score is the
+ * worth of X's open lines minus the worth of O's.
+ *
+ * The score is kept up to date on every move from the line counts of a
+ * WinTracker, touching only the lines through the placed tile, and the
+ * change is pushed on a stack so undo() takes it back for free.
+ */
+public class Evaluator {
+
+    static final int LIMIT = AlphaBetaSearch.WIN_SCORE / 2;    // Scores stay far from win scores.
+
+    private final WinTracker tracker;           // Line counts before the pending placement.
+    private final BoardLines lines;
+    private final int[] weights;                // Worth of an open line by its amount of pieces.
+    private final int[] changes;                // Undo stack of score changes.
+    private int moveCount;                      // Amount of entries on the undo stack.
+    private int score;                          // Worth of X's open lines minus O's.
+
+    public Evaluator(WinTracker tracker) {
+        this.tracker = tracker;
+        this.lines = tracker.getLines();
+        int lineLength = lines.getLineLength();
+        this.weights = new int[lineLength + 1];
+        for(int pieces = 1; pieces <= lineLength; pieces++) weights[pieces] = 1 << Math.min(3*(pieces-1), 18);
+        this.changes = new int[lines.getSize()*lines.getSize()];
+    }
+
+    // Record a piece placed by player on an empty tile.
+    // Must be called before the placement reaches the WinTracker.
+    public void place(int cell, int player) {
+        int change = 0;
+        for(int line : lines.linesThrough(cell)) {
+            int x = tracker.count(AlphaBetaSearch.X, line);
+            int o = tracker.count(AlphaBetaSearch.O, line);
+            int before = worth(x, o);
+            if(player == AlphaBetaSearch.X) x++;
+            else o++;
+            change += worth(x, o) - before;
+        }
+        changes[moveCount++] = change;
+        score += change;
+    }
+
+    // Take back the last placement.
+    public void undo() {
+        score -= changes[--moveCount];
+    }
+
+    // Worth of a line for X minus its worth for O.
+    private int worth(int x, int o) {
+        if(o == 0) return weights[x];
+        if(x == 0) return -weights[o];
+        return 0;
+    }
+
+    // Returns the score of the position from the view of player.
+    public int score(int player) {
+        int clamped = Math.max(-LIMIT, Math.min(LIMIT, score));
+        return player == AlphaBetaSearch.X ? clamped : -clamped;
+    }
+
+    // Forget every placement.
+    public void reset() {
+        Arrays.fill(changes, 0);
+        moveCount = 0;
+        score = 0;
+    }
+}
@@ -0,0 +1,64 @@
+package tictactow;
+
+/*
+ * GameEngine holds the rules of a game of tic-tac-toe, the board size and
+ * the amount of pieces in a row needed to win, and creates games
+ * that follow them. It has no console input or output and keeps no
+ * shared state, every game it creates is independent of the others.
+ *
+ *      GameEngine engine = new GameEngine(3);
+ *      GameState game = engine.newGame();
+ *      game.apply(4);
+ *      if(game.status() == GameStatus.X_WON) ...
+ */
+public class GameEngine {
+
+    static final int MINIMUM_SIZE = 3;      // The smallest board allowed.
+
+    static final int MINIMUM_WIN_LENGTH = 3;    // The shortest line allowed to win.
+
+    private final int size;                 // The length and width of the board.
+    private final int winLength;            // Amount of pieces in a row needed to win.
+
+    // Rules where a full row, column or main diagonal wins.
+    public GameEngine(int size) {
+        this(size, size);
+    }
+
+    // Rules where winLength pieces in a row win, along any row,
+    // column or diagonal. For example 5 on a 15x15 board.
+    public GameEngine(int size, int winLength) {
+        if(size < MINIMUM_SIZE)
+            throw new IllegalArgumentException("Board size must be a minimum of 3x3.");
+        if(winLength < MINIMUM_WIN_LENGTH || winLength > size)
+            throw new IllegalArgumentException("Win length must be between 3 and the board size.");
+        this.size = size;
+        this.winLength = winLength;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    // Create a new empty game with X to move.
+    public GameState newGame() {
+        return new GameState(size, winLength);
+    }
+
+    // Create a new empty game with firstPlayer, X or O, to move.
+    public GameState newGame(int firstPlayer) {
+        return new GameState(size, winLength, firstPlayer);
+    }
+
+    // Create a new game and play the given tiles in order,
+    // alternating between X and O.
+    public GameState replay(int... moves) {
+        GameState game = newGame();
+        for(int move : moves) game.apply(move);
+        return game;
+    }
+}
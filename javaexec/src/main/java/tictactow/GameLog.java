@@ -0,0 +1,56 @@
+package tictactow;
+
+import java.io.IOException;
+
+/*
+ * GameLog records the games played on the console to the default game
+ * record file, see GameRecordWriter. Recording never gets in the way of
+ * playing: if the file can not be written, the game goes on unrecorded.
+ */
+class GameLog {
+
+    private static GameRecordWriter writer;     // Open while a game is recorded.
+
+    // Start recording a game on an empty board.
+    static void begin(GameState game, GameRecord.Player xPlayer, GameRecord.Player oPlayer) {
+        end(GameStatus.IN_PROGRESS);
+        try {
+            writer = new GameRecordWriter(GameRecordWriter.defaultPath());
+            writer.beginGame(game.getSize(), game.getWinLength(), xPlayer, oPlayer, game.toMove());
+        } catch(IOException ex) {
+            System.out.println("This game will not be recorded: " + ex.getMessage());
+            close();
+        }
+    }
+
+    // Record a move, or a pass with a tile of GameRecord.PASS.
+    static void move(int tile, long millis) {
+        if(writer == null) return;
+        try {
+            writer.move(tile, millis);
+        } catch(IOException ex) {
+            close();
+        }
+    }
+
+    // Finish the recorded game with its result.
+    static void end(GameStatus result) {
+        if(writer == null) return;
+        try {
+            writer.endGame(result);
+        } catch(IOException ex) {
+            // The reader skips the unfinished game.
+        }
+        close();
+    }
+
+    private static void close() {
+        if(writer == null) return;
+        try {
+            writer.close();
+        } catch(IOException ex) {
+            // Nothing left to save.
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,91 @@
+package tictactow;
+
+/*
+ * GameRecord is one finished game as stored by GameRecordWriter: the
+ * rules, who played X and O and which of them moved first, every move
+ * with the time it took and the result. replay() turns it back into a
+ * GameState.
+ */
+public class GameRecord {
+
+    // Who made the moves of a side.
+    public enum Player {
+        HUMAN,
+        EASY,
+        MEDIUM,
+        HARD,
+        MONTE_CARLO
+    }
+
+    static final int PASS = -1;                 // Move of a turn that timed out.
+
+    private final int size;                     // The length and width of the board.
+    private final int winLength;                // Amount of pieces in a row needed to win.
+    private final Player xPlayer;
+    private final Player oPlayer;
+    private final int firstPlayer;              // GameState.X or GameState.O.
+    private final int[] moves;                  // Tile of every move, PASS for a skipped turn.
+    private final int[] millis;                 // Milliseconds every move took.
+    private final GameStatus result;
+
+    GameRecord(int size, int winLength, Player xPlayer, Player oPlayer, int firstPlayer, int[] moves, int[] millis, GameStatus result) {
+        this.size = size;
+        this.winLength = winLength;
+        this.xPlayer = xPlayer;
+        this.oPlayer = oPlayer;
+        this.firstPlayer = firstPlayer;
+        this.moves = moves;
+        this.millis = millis;
+        this.result = result;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public Player getXPlayer() {
+        return xPlayer;
+    }
+
+    public Player getOPlayer() {
+        return oPlayer;
+    }
+
+    // Returns GameState.X or GameState.O.
+    public int getFirstPlayer() {
+        return firstPlayer;
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    // Returns the tile of a move, or PASS.
+    public int moveAt(int index) {
+        return moves[index];
+    }
+
+    // Returns the milliseconds a move took.
+    public int millisAt(int index) {
+        return millis[index];
+    }
+
+    public GameStatus getResult() {
+        return result;
+    }
+
+    // Play the recorded moves on a new game, starting with the
+    // player who moved first.
+    public GameState replay() {
+        GameState game = new GameEngine(size, winLength).newGame(firstPlayer);
+        for(int move : moves) {
+            if(move == PASS) game.pass();
+            else game.apply(move);
+        }
+        return game;
+    }
+}
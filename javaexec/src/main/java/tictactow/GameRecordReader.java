@@ -0,0 +1,172 @@
+package tictactow;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/*
+ * GameRecordReader streams the games of a log written by GameRecordWriter
+ * one at a time, so logs of millions of games are replayed or analyzed
+ * with only the current game in memory. A game cut off at the end of the
+ * file, for example by a crash, is skipped. So are bytes that do not form
+ * a game, which only a game cut off in the middle of an older file can
+ * leave behind: reading stops there and isDamaged() tells.
+ *
+ * Usage: GameRecordReader [file]
+ *      Prints how the stored games ended.
+ */
+public class GameRecordReader implements Closeable {
+
+    static final int MAXIMUM_SIZE = 1000;       // Largest board a game may have, larger sizes are damage.
+
+    private final InputStream in;
+    private final int version;                  // Version byte of the file header.
+    private long position;                      // Bytes read from the file.
+    private long completeLength;                // Bytes up to the end of the last complete game.
+    private boolean damaged;                    // Set once bytes were found that do not form a game.
+    private int[] moves = new int[16];          // Reused buffers of the game being read.
+    private int[] millis = new int[16];
+
+    public GameRecordReader(Path file) throws IOException {
+        in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        for(byte expected : GameRecordWriter.MAGIC) {
+            if(in.read() != expected) {
+                in.close();
+                throw new IOException(file + " is not a game record file.");
+            }
+        }
+        version = in.read();
+        if(version < 1 || version > GameRecordWriter.VERSION) {
+            in.close();
+            throw new IOException(file + " has unsupported version " + version + ".");
+        }
+        position = completeLength = GameRecordWriter.MAGIC.length + 1;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // Returns the length of the file up to the end of the last game
+    // next() returned, everything after it is unfinished or damaged.
+    public long getCompleteLength() {
+        return completeLength;
+    }
+
+    // Returns true if reading stopped at bytes that do not form a game.
+    public boolean isDamaged() {
+        return damaged;
+    }
+
+    // Returns the next game, or null once every complete game was read.
+    public GameRecord next() throws IOException {
+        if(damaged) return null;
+        try {
+            int first = in.read();
+            if(first == -1) return null;
+            position++;
+            int size = readVarint(first);
+            int winLength = readVarint(readByte());
+            if(size < GameEngine.MINIMUM_SIZE || size > MAXIMUM_SIZE
+                    || winLength < GameEngine.MINIMUM_WIN_LENGTH || winLength > size) return damaged();
+            GameRecord.Player xPlayer = readPlayer();
+            GameRecord.Player oPlayer = readPlayer();
+            int firstPlayer = version >= 2 ? readByte() : GameState.X;
+            if(xPlayer == null || oPlayer == null || (firstPlayer != GameState.X && firstPlayer != GameState.O)) return damaged();
+
+            // A game holds one move per tile and at most one pass
+            // between two of them.
+            int count = 0;
+            while(true) {
+                int code = readVarint(readByte());
+                if(code == GameRecordWriter.END) break;
+                if(code < 0 || code - 2 >= size*size || count >= 2*size*size + 1) return damaged();
+                if(count == moves.length) {
+                    moves = Arrays.copyOf(moves, count*2);
+                    millis = Arrays.copyOf(millis, count*2);
+                }
+                moves[count] = code == GameRecordWriter.PASS ? GameRecord.PASS : code-2;
+                millis[count] = readVarint(readByte());
+                if(millis[count] < 0) return damaged();
+                count++;
+            }
+            int result = readByte();
+            if(result >= GameStatus.values().length) return damaged();
+
+            completeLength = position;
+            return new GameRecord(size, winLength, xPlayer, oPlayer, firstPlayer,
+                Arrays.copyOf(moves, count), Arrays.copyOf(millis, count), GameStatus.values()[result]);
+        } catch(EOFException ex) {
+            // The last game was not finished writing.
+            return null;
+        }
+    }
+
+    // Stop reading at bytes that are not a game.
+    private GameRecord damaged() {
+        damaged = true;
+        return null;
+    }
+
+    // Returns the player stored in the next byte, or null if it is none.
+    private GameRecord.Player readPlayer() throws IOException {
+        int ordinal = readByte();
+        if(ordinal >= GameRecord.Player.values().length) return null;
+        return GameRecord.Player.values()[ordinal];
+    }
+
+    private int readByte() throws IOException {
+        int value = in.read();
+        if(value == -1) throw new EOFException();
+        position++;
+        return value;
+    }
+
+    // Read a varint whose first byte was already read.
+    // Returns a negative value for more than 32 bits.
+    private int readVarint(int first) throws IOException {
+        int value = first & 0x7F;
+        int shift = 7;
+        int current = first;
+        while((current & 0x80) != 0) {
+            if(shift > 28) return -1;
+            current = readByte();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = args.length > 0 ? Paths.get(args[0]) : GameRecordWriter.defaultPath();
+        long games = 0, moves = 0, xWins = 0, oWins = 0, draws = 0, unfinished = 0;
+
+        try(GameRecordReader reader = new GameRecordReader(file)) {
+            GameRecord record;
+            while((record = reader.next()) != null) {
+                games++;
+                moves += record.getMoveCount();
+                if(record.getResult() == GameStatus.X_WON) xWins++;
+                else if(record.getResult() == GameStatus.O_WON) oWins++;
+                else if(record.getResult() == GameStatus.DRAW) draws++;
+                else unfinished++;
+            }
+
+            System.out.println(String.format("%d games, %.1f moves per game: X won %d, O won %d, %d draws, %d abandoned",
+                games, games == 0 ? 0 : (double) moves / games, xWins, oWins, draws, unfinished));
+            if(reader.isDamaged())
+                System.out.println("Reading stopped at damaged data " + reader.getCompleteLength() + " bytes into " + file + ".");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package tictactow;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * GameRecordWriter appends games to a compact binary log while they are
+ * played. Every move is flushed to the file as it happens, so nothing but
+ * the current move is held in memory and a crash loses at most the move
+ * being written. A game cut off halfway is skipped by GameRecordReader,
+ * and removed when the file is next opened for writing, so the games
+ * appended after it can be read again.
+ *
+ * File layout: the magic "TTTR" and a version byte, then the games one
+ * after the other. A game starts with the varints size and win length,
+ * the bytes of the X and O GameRecord.Player and, since version 2, the
+ * byte of the player who moved first, X (1) or O (2). It is followed by
+ * one varint per move, tile+2 or 1 for a pass, each followed by a varint
+ * of milliseconds. A 0 ends the game, followed by the byte of the
+ * GameStatus. In version 1 files X always moved first.
+ *
+ * Varints hold 7 bits per byte, low bits first, with the high bit set on
+ * every byte but the last. Moves on boards up to 11x11 take a single byte.
+ */
+public class GameRecordWriter implements Closeable {
+
+    static final byte[] MAGIC = {'T', 'T', 'T', 'R'};
+    static final int VERSION = 2;
+    static final int END = 0;                   // Varint ending the moves of a game.
+    static final int PASS = 1;                  // Varint of a skipped turn, moves are tile+2.
+
+    static final String PATH_PROPERTY = "tictactow.records";     // Overrides the default file.
+
+    private final OutputStream out;
+    private final int version;                  // Version of the file, older files are continued in theirs.
+    private boolean inGame;                     // True between beginGame() and endGame().
+
+    // Open a log for appending, writing the file header if it is new.
+    // A game left unfinished at the end of the file is cut off first,
+    // a file that is damaged before its end is not appended to.
+    public GameRecordWriter(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if(directory != null) Files.createDirectories(directory);
+        boolean isNew = !Files.exists(file) || Files.size(file) == 0;
+
+        if(isNew) {
+            version = VERSION;
+        }
+        else {
+            long complete;
+            try(GameRecordReader reader = new GameRecordReader(file)) {
+                while(reader.next() != null) {
+                    // Skip to the end of the last complete game.
+                }
+                // Games appended after damage could never be read.
+                if(reader.isDamaged())
+                    throw new IOException(file + " is damaged " + reader.getCompleteLength() + " bytes in.");
+                version = reader.getVersion();
+                complete = reader.getCompleteLength();
+            }
+            if(complete < Files.size(file)) {
+                try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(complete);
+                }
+            }
+        }
+
+        out = new BufferedOutputStream(Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE));
+        if(isNew) {
+            out.write(MAGIC);
+            out.write(VERSION);
+        }
+    }
+
+    // The file named by the tictactow.records property, or
+    // tictactoe-games.rec in the working directory.
+    public static Path defaultPath() {
+        String path = System.getProperty(PATH_PROPERTY);
+        return Paths.get(path != null ? path : "tictactoe-games.rec");
+    }
+
+    // Start a new game that X opens.
+    public void beginGame(int size, int winLength, GameRecord.Player xPlayer, GameRecord.Player oPlayer) throws IOException {
+        beginGame(size, winLength, xPlayer, oPlayer, GameState.X);
+    }
+
+    // Start a new game opened by firstPlayer, X or O.
+    public void beginGame(int size, int winLength, GameRecord.Player xPlayer, GameRecord.Player oPlayer, int firstPlayer) throws IOException {
+        if(inGame)
+            throw new IllegalStateException("The previous game has not ended.");
+        if(firstPlayer != GameState.X && firstPlayer != GameState.O)
+            throw new IllegalArgumentException("Only X or O can move first.");
+        if(version < 2 && firstPlayer != GameState.X)
+            throw new IOException("The game record file is from an older version that only holds games X opens.");
+        writeVarint(size);
+        writeVarint(winLength);
+        out.write(xPlayer.ordinal());
+        out.write(oPlayer.ordinal());
+        if(version >= 2) out.write(firstPlayer);
+        out.flush();
+        inGame = true;
+    }
+
+    // Record a move, or a pass with a tile of GameRecord.PASS.
+    public void move(int tile, long millis) throws IOException {
+        writeMove(tile, millis);
+        out.flush();
+    }
+
+    private void writeMove(int tile, long millis) throws IOException {
+        if(!inGame)
+            throw new IllegalStateException("No game has begun.");
+        writeVarint(tile == GameRecord.PASS ? PASS : tile+2);
+        writeVarint((int) Math.min(Integer.MAX_VALUE, Math.max(0, millis)));
+    }
+
+    // End the game and push it to the file.
+    public void endGame(GameStatus result) throws IOException {
+        if(!inGame)
+            throw new IllegalStateException("No game has begun.");
+        writeVarint(END);
+        out.write(result.ordinal());
+        out.flush();
+        inGame = false;
+    }
+
+    // Write a whole game at once, without a flush per move.
+    public void write(GameRecord record) throws IOException {
+        beginGame(record.getSize(), record.getWinLength(), record.getXPlayer(), record.getOPlayer(), record.getFirstPlayer());
+        for(int i = 0; i < record.getMoveCount(); i++) writeMove(record.moveAt(i), record.millisAt(i));
+        endGame(record.getResult());
+    }
+    private void writeVarint(int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,208 @@
+package tictactow;
+
+import java.util.Arrays;
+
+/*
+ * GameState is one game of tic-tac-toe without any console input or
+ * output. It owns its board, its win tracker and its move history, so any
+ * amount of games can be played side by side in the same process.
+ * Create one through GameEngine.newGame().
+ *
+ * A player wins with winLength pieces in a row along a row, a column or
+ * any diagonal. The first player is chosen by GameEngine.newGame() and is
+ * X unless given otherwise. Pieces are represented by integers: 0 is
+ * empty, 1 is X and 2 is O.
+ */
+public class GameState {
+
+    static final int EMPTY = Bitboard.EMPTY;
+    static final int X = Bitboard.X;
+    static final int O = Bitboard.O;
+
+    private final int size;                 // The length and width of the board.
+    private final int winLength;            // Amount of pieces in a row needed to win.
+    private final Bitboard board;           // Pieces on the board.
+    private final WinTracker tracker;       // Per-line counts used to detect a win by the last move.
+    private int[] history;                  // Every move as (tile+1) << 2 | player, tile+1 is 0 for a pass.
+    private int historyLength;              // Amount of entries in history.
+    private int toMove = X;                 // The player whose turn it is.
+    private GameStatus status = GameStatus.IN_PROGRESS;
+
+    GameState(int size, int winLength) {
+        this(size, winLength, X);
+    }
+
+    GameState(int size, int winLength, int firstPlayer) {
+        if(firstPlayer != X && firstPlayer != O)
+            throw new IllegalArgumentException("Only X or O can move first.");
+        BoardLines lines = BoardLines.forSize(size, winLength);
+        this.size = size;
+        this.winLength = winLength;
+        this.board = Bitboard.create(lines);
+        this.tracker = new WinTracker(lines);
+        this.history = new int[size*size];
+        this.toMove = firstPlayer;
+    }
+
+    // Returns the opponent of player.
+    public static int opponent(int player) {
+        return 3 - player;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    // Returns the winning lines of the board.
+    public BoardLines getLines() {
+        return tracker.getLines();
+    }
+
+    // Returns the amount of pieces player has on a line, kept up to
+    // date with every move so callers can scan lines without the board.
+    public int countOnLine(int player, int line) {
+        return tracker.count(player, line);
+    }
+
+    public int getCellCount() {
+        return board.getCellCount();
+    }
+
+    // Returns the piece on a tile.
+    public int get(int index) {
+        return board.get(index);
+    }
+
+    public boolean isEmpty(int index) {
+        return board.isEmpty(index);
+    }
+
+    // Returns the player whose turn it is.
+    public int toMove() {
+        return toMove;
+    }
+
+    public GameStatus status() {
+        return status;
+    }
+
+    public boolean isOver() {
+        return status.isOver();
+    }
+
+    // Returns the amount of pieces on the board.
+    public int getPieceCount() {
+        return board.pieceCount();
+    }
+
+    // Returns the amount of moves and passes made so far.
+    public int getHistoryLength() {
+        return historyLength;
+    }
+
+    // Returns the tile of a move in the history, or -1 for a pass.
+    public int moveAt(int index) {
+        return (history[index] >>> 2) - 1;
+    }
+
+    // Returns the player that made a move in the history.
+    public int playerAt(int index) {
+        return history[index] & 3;
+    }
+
+    // Returns the tile of the last move, or -1 if there was none or it was a pass.
+    public int lastMove() {
+        if(historyLength == 0) return -1;
+        return moveAt(historyLength-1);
+    }
+
+    // Place a piece for the player whose turn it is.
+    public GameStatus apply(int index) {
+        return apply(index, toMove);
+    }
+
+    // Place a piece for player. The turn then goes to the opponent
+    // of player, which allows a player to move again after a pass.
+    public GameStatus apply(int index, int player) {
+        if(status.isOver())
+            throw new IllegalStateException("The game is already over.");
+        if(player != X && player != O)
+            throw new IllegalArgumentException("Only X or O pieces can be placed.");
+        if(index < 0 || index >= board.getCellCount())
+            throw new IllegalArgumentException("Tile " + (index+1) + " is not on the board.");
+        if(!board.isEmpty(index))
+            throw new IllegalArgumentException("Tile " + (index+1) + " already has an X or O.");
+
+        board.set(index, player);
+        boolean won = tracker.place(index, player);
+        push(((index+1) << 2) | player);
+        toMove = opponent(player);
+
+        if(won) status = player == X ? GameStatus.X_WON : GameStatus.O_WON;
+        else if(board.isFull()) status = GameStatus.DRAW;
+        return status;
+    }
+
+    // Skip the turn of the player to move, used when a turn times out.
+    public void pass() {
+        if(status.isOver())
+            throw new IllegalStateException("The game is already over.");
+        push(toMove);
+        toMove = opponent(toMove);
+    }
+
+    // Take back the last move or pass.
+    public void undo() {
+        if(historyLength == 0)
+            throw new IllegalStateException("There is no move to undo.");
+
+        int entry = history[--historyLength];
+        int index = (entry >>> 2) - 1;
+        if(index >= 0) {
+            board.remove(index);
+            tracker.undo();
+        }
+        toMove = entry & 3;
+        status = GameStatus.IN_PROGRESS;
+    }
+
+    // Returns every empty tile, or nothing once the game is over.
+    public int[] legalMoves() {
+        int[] moves = new int[status.isOver() ? 0 : board.getCellCount() - board.pieceCount()];
+        legalMoves(moves);
+        return moves;
+    }
+
+    // Write every empty tile into buffer and return how many there are.
+    // Lets callers that generate moves often reuse one array.
+    public int legalMoves(int[] buffer) {
+        if(status.isOver()) return 0;
+        int count = 0;
+        for(int i = 0; i < board.getCellCount(); i++) {
+            if(board.isEmpty(i)) buffer[count++] = i;
+        }
+        return count;
+    }
+
+    // Returns an independent copy of this game.
+    public GameState copy() {
+        GameState copy = new GameState(size, winLength);
+        for(int i = 0; i < historyLength; i++) {
+            int index = moveAt(i);
+            if(index >= 0) copy.apply(index, playerAt(i));
+            else copy.pass();
+        }
+        // Before the first move only toMove tells who starts.
+        copy.toMove = toMove;
+        return copy;
+    }
+
+    private void push(int entry) {
+        if(historyLength == history.length) history = Arrays.copyOf(history, historyLength*2);
+        history[historyLength++] = entry;
+    }
+}
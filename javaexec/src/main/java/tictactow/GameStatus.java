@@ -0,0 +1,19 @@
+package tictactow;
+
+// This enum represents the outcome of a game, or the lack of it.
+public enum GameStatus {
+    IN_PROGRESS,
+    X_WON,
+    O_WON,
+    DRAW;
+
+    // Returns true once the game can no longer continue.
+    public boolean isOver() {
+        return this != IN_PROGRESS;
+    }
+
+    // Returns true if one of the players has won.
+    public boolean hasWinner() {
+        return this == X_WON || this == O_WON;
+    }
+}
@@ -0,0 +1,136 @@
+package tictactow;
+
+/*
+ * HardAI picks its moves with an AlphaBetaSearch limited to a time
+ * budget per move. The search engine, and with it the transposition
+ * table, is kept between moves and games with the same rules. Given a
+ * Tablebase, 3x3 moves are looked up instead of searched. With more
+ * than one thread the search runs as a Lazy SMP ParallelSearch.
+ *
+ * After its move, ponder() keeps the engine searching on the opponent's
+ * time with a Ponderer. When the opponent plays the predicted reply, the
+ * pondered move is played at once, provided its search was complete or
+ * took at least half the time limit; a shorter ponder continues with the
+ * time left.
+ */
+public class HardAI implements AIPlayer {
+
+    private final long timeLimitMillis;     // Milliseconds the search may take per move by default.
+    private final Tablebase tablebase;      // Perfect play for 3x3, or null to always search.
+    private final int threads;              // Amount of threads searching each move.
+    private ParallelSearch search;          // Search engine for the current board size.
+    private Ponderer ponderer;              // Searches on the opponent's time with the same engine.
+    private SearchResult lastResult;        // Result of the most recent search.
+    private boolean lastFromTablebase;      // True if the most recent move was looked up.
+    private boolean lastFromPonder;         // True if the most recent move was pondered.
+
+    public HardAI(long timeLimitMillis) {
+        this(timeLimitMillis, null);
+    }
+
+    public HardAI(long timeLimitMillis, Tablebase tablebase) {
+        this(timeLimitMillis, tablebase, 1);
+    }
+
+    public HardAI(long timeLimitMillis, Tablebase tablebase, int threads) {
+        this.timeLimitMillis = timeLimitMillis;
+        this.tablebase = tablebase;
+        this.threads = threads;
+    }
+
+    @Override
+    public int chooseMove(GameState game) {
+        return chooseMove(game, timeLimitMillis);
+    }
+
+    @Override
+    public int chooseMove(GameState game, long timeLimitMillis) {
+        if(game.isOver()) return -1;
+        long start = System.nanoTime();
+        lastFromPonder = false;
+
+        // A covered position needs no search at all.
+        if(tablebase != null) {
+            int move = tablebase.bestMove(game);
+            if(move != -1) {
+                lastResult = null;
+                lastFromTablebase = true;
+                return move;
+            }
+        }
+        lastFromTablebase = false;
+
+        prepareEngine(game);
+
+        // The opponent played the predicted reply.
+        SearchResult pondered = ponderer.answerFor(game);
+        if(pondered != null) {
+            long remaining = timeLimitMillis - pondered.getElapsedMillis();
+            if(ponderer.isAnswerComplete() || remaining <= timeLimitMillis/2) {
+                lastResult = pondered;
+                lastFromPonder = true;
+                return pondered.getMove();
+            }
+            timeLimitMillis = remaining;
+        }
+
+        // Building an engine and stopping the ponder count against the time limit.
+        long setupMillis = (System.nanoTime() - start) / 1000000L;
+        lastResult = search.findBestMove(game, Math.max(1, timeLimitMillis - setupMillis));
+        return lastResult.getMove();
+    }
+
+    // Returns the statistics of the most recent move, or null if
+    // it was looked up in the tablebase.
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+
+    public boolean isLastFromTablebase() {
+        return lastFromTablebase;
+    }
+
+    public boolean isLastFromPonder() {
+        return lastFromPonder;
+    }
+
+    // Start searching on the opponent's time, game being the position
+    // after this player's move. Positions covered by the tablebase
+    // need no pondering. Any earlier pondering is stopped first.
+    public void ponder(GameState game) {
+        if(game.isOver() || (tablebase != null && game.getSize() == Tablebase.SIZE && game.getWinLength() == Tablebase.SIZE)) {
+            stopPondering();
+            return;
+        }
+        prepareEngine(game);
+        ponderer.start(game, timeLimitMillis/4);
+    }
+
+    // Only rebuild the engine when the rules changed.
+    private void prepareEngine(GameState game) {
+        if(search != null && search.getSize() == game.getSize() && search.getWinLength() == game.getWinLength()) return;
+        stopPondering();
+        search = new ParallelSearch(game.getSize(), game.getWinLength(), threads);
+        ponderer = new Ponderer(search);
+    }
+
+    // Stop searching on the opponent's time.
+    public void stopPondering() {
+        if(ponderer != null) ponderer.stop();
+    }
+
+    // Returns the pondering statistics, or null before the first search.
+    public Ponderer getPonderer() {
+        return ponderer;
+    }
+
+    @Override
+    public void reset() {
+        stopPondering();
+    }
+
+    @Override
+    public String getName() {
+        return "hard";
+    }
+}
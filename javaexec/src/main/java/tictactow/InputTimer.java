@@ -1,62 +1,69 @@
 package tictactow;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /*
- * InputTimer is used to create multiple threads managed in one thread pool
- * to gather input while keep track of a time limit at the same time.
- * Used to limit players to only have a certain amount of seconds before
- * their turn is skipped. 
+ * InputTimer gathers a position from the player while keeping track of a
+ * time limit at the same time. Used to limit players to only have a certain
+ * amount of seconds before their turn is skipped.
+ *
+ * The turn has a deadline and every wait for a line from ConsoleInput is
+ * bounded by the time left until it. The calling thread sleeps inside the
+ * wait, so nothing polls, no threads or executors are created per turn and
+ * the turn ends the moment input arrives or the deadline passes. A line
+ * typed after a timeout stays queued for the next turn instead of being lost.
  */
 public class InputTimer {
 
-    private final BufferedReader reader = new               // Reads console input.
-        BufferedReader(new InputStreamReader(System.in));
-    private final int timeLimit;                            // amount of time user has to type a position on the board.
-    private final ExecutorService threadPool =              // Keep track of pool of threads, used to create multiple
-        Executors.newVirtualThreadPerTaskExecutor();        // threads using methods in this class.
-    private int position;                                   // Position the player wants to place his tile.
+    static final int TIMED_OUT = -2;        // Position reported when the time limit passed.
+
+    private final long start;               // System.nanoTime() at which the turn began.
+    private final long deadline;            // System.nanoTime() at which the turn ends.
 
     InputTimer(int timeLimit) {
-        this.timeLimit = timeLimit;
-        position = -1;
+        this(timeLimit*1000L);
+    }
 
-        // Create threads for the timer and input.
-        threadPool.submit(() -> handleInput());
-        threadPool.submit(() -> handleTimer());
+    InputTimer(long timeLimitMillis) {
+        start = System.nanoTime();
+        deadline = start + timeLimitMillis*1000000L;
+    }
 
-        // terminate all threads in the pool after delay
-        try {
-            threadPool.awaitTermination(1, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException ex) {
-            throw new RuntimeException(ex);
-        }
+    // Returns the milliseconds since the turn began, at most the time limit.
+    public long elapsedMillis() {
+        return (Math.min(System.nanoTime(), deadline) - start) / 1000000L;
     }
 
-    // return the position the user has selected
-    public int getPosition() {
+    // Block until the user selected a valid position or the time ran
+    // out. Returns the index of the position or TIMED_OUT. The wait is
+    // recorded in EngineMetrics.
+    public int awaitPosition() {
+        int position = readPosition();
+        EngineMetrics.shared().recordHumanWait(Math.min(System.nanoTime(), deadline) - start);
         return position;
     }
 
-    // handle all the player inputs for positions on the board.
-    private void handleInput() {
+    private int readPosition() {
         try {
-            int input;
             while(true) {
-                
-                // while the reader has nothing to read, keep waiting
-                while(!reader.ready()) 
-                {Thread.sleep(10);}
 
-                // once there is something to read, grab it and confirm
-                // its a number.
+                // Wait for a line, but no longer than the time left.
+                long remaining = deadline - System.nanoTime();
+                String line = remaining > 0 ? ConsoleInput.pollLine(remaining, TimeUnit.NANOSECONDS) : null;
+                if(line == null) {
+                    // Without any input left, waiting out the clock is all that remains.
+                    if(remaining > 0 && ConsoleInput.isClosed()) {
+                        TimeUnit.NANOSECONDS.sleep(deadline - System.nanoTime());
+                    }
+                    System.out.println("Time has run out! Switching turns!");
+                    return TIMED_OUT;
+                }
+
+                // confirm it's a number.
+                int input;
                 try {
-                    input = Integer.parseInt(reader.readLine())-1;
+                    input = Integer.parseInt(line)-1;
                 } catch(NumberFormatException ex) {
                     System.out.println("Invalid Input. Please enter the position of the box. (1, 2, 3, etc.)");
                     continue;
@@ -71,30 +78,11 @@ public class InputTimer {
                 // If index provided is already filled by a proper piece.
                 else if(!Tictactoe.validPosition(input))
                     System.out.println("The position already has an X or O. Please try again.");
-                else break;
+                else return input;
             }
-            
-            // once position gathered, shutdown thread pool.
-            position = input;
-            threadPool.shutdownNow();
-        } catch(NumberFormatException | IOException | InterruptedException ex) {
+        } catch(IOException | InterruptedException ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    // handle the time limit restriction on the players.
-    private void handleTimer() {
-
-        for(int i = timeLimit; i >= 0; i--) {
-            try {
-                Thread.sleep(1000); // sleep for a second
-            } catch(InterruptedException ex) {
-                throw new RuntimeException(ex);
-            }
-        }
-
-        System.out.println("Time has run out! Switching turns!");
-        position = -2;
-    }
-    
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package tictactow;
+
+import java.util.Arrays;
+
+/*
+ * LargeBitboard stores boards bigger than 8x8 in a long[] per player.
+ * A line mask is kept as the words it touches and the bits within each
+ * word, so checking a line only looks at the words the line passes through.
+ * The masks only depend on the size and win length and are shared through
+ * BoardLines, so a new board only allocates its own pieces.
+ */
+public class LargeBitboard extends Bitboard {
+
+    private final long[] xBits;             // Tiles owned by X, 64 per word.
+    private final long[] oBits;             // Tiles owned by O, 64 per word.
+    private final int[][] maskWords;        // Word indices touched by every line, shared.
+    private final long[][] maskBits;        // Bits of the line within each of those words, shared.
+
+    LargeBitboard(BoardLines lines) {
+        super(lines);
+        int words = (cellCount + 63) >>> 6;
+        xBits = new long[words];
+        oBits = new long[words];
+
+        BoardLines.WordMasks masks = lines.multiWordMasks();
+        maskWords = masks.words;
+        maskBits = masks.bits;
+    }
+
+    @Override
+    public int get(int index) {
+        long bit = 1L << index;
+        if((xBits[index >>> 6] & bit) != 0) return X;
+        if((oBits[index >>> 6] & bit) != 0) return O;
+        return EMPTY;
+    }
+
+    @Override
+    public void set(int index, int player) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        if(player == X) { xBits[word] |= bit; oBits[word] &= ~bit; }
+        else if(player == O) { oBits[word] |= bit; xBits[word] &= ~bit; }
+        else throw new IllegalArgumentException("Only X or O pieces can be placed.");
+    }
+
+    @Override
+    public void remove(int index) {
+        long bit = ~(1L << index);
+        xBits[index >>> 6] &= bit;
+        oBits[index >>> 6] &= bit;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(xBits, 0);
+        Arrays.fill(oBits, 0);
+    }
+
+    @Override
+    public int pieceCount() {
+        int count = 0;
+        for(int w = 0; w < xBits.length; w++) count += Long.bitCount(xBits[w] | oBits[w]);
+        return count;
+    }
+
+    @Override
+    public boolean ownsLine(int player, int line) {
+        long[] bits = player == X ? xBits : oBits;
+        int[] words = maskWords[line];
+        long[] masks = maskBits[line];
+        for(int i = 0; i < words.length; i++) {
+            if((bits[words[i]] & masks[i]) != masks[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasLine(int player) {
+        for(int line = 0; line < maskWords.length; line++) {
+            if(ownsLine(player, line)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package tictactow;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * LatencyHistogram counts recorded values in log-linear buckets, the
+ * layout of an HDR histogram: values below 128 get a bucket each and
+ * every power of two above is split into 64 equal buckets. Percentiles
+ * are exact to within 1.6% over the whole long range in a fixed 30 KB,
+ * so a histogram can be kept for the lifetime of a program.
+ *
+ * Recording is lock free and safe from any thread.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 6;                      // 64 buckets per power of two.
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS)*SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();          // Amount of recorded values.
+    private final AtomicLong sum = new AtomicLong();            // Sum of recorded values.
+    private final AtomicLong max = new AtomicLong();            // Largest recorded value.
+
+    // Record a value, negative values count as 0.
+    public void record(long value) {
+        if(value < 0) value = 0;
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while(value > (current = max.get()) && !max.compareAndSet(current, value));
+    }
+
+    static int bucketOf(long value) {
+        if(value < 2*SUB_COUNT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift*SUB_COUNT + (int) (value >>> shift);
+    }
+
+    // Returns the largest value that falls into a bucket.
+    static long highestValueOf(int bucket) {
+        if(bucket < 2*SUB_COUNT) return bucket;
+        int shift = bucket/SUB_COUNT - 1;
+        long lowest = (long) (bucket - shift*SUB_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    // Returns the value below or at which the given percent of the
+    // recorded values fall, 0 if nothing was recorded.
+    public long valueAtPercentile(double percentile) {
+        long total = count.get();
+        if(total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if(seen >= rank) return Math.min(highestValueOf(bucket), max.get());
+        }
+        return max.get();
+    }
+
+    // Forget every recorded value.
+    public void reset() {
+        for(int bucket = 0; bucket < BUCKETS; bucket++) counts.set(bucket, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // Returns count, mean and percentiles, each value divided by scale.
+    public String summary(double scale, String unit) {
+        return String.format("n=%d mean=%.1f%s p50=%.1f%s p90=%.1f%s p99=%.1f%s max=%.1f%s",
+            getCount(), getMean() / scale, unit,
+            valueAtPercentile(50) / scale, unit, valueAtPercentile(90) / scale, unit,
+            valueAtPercentile(99) / scale, unit, getMax() / scale, unit);
+    }
+}
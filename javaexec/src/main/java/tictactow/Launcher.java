@@ -1,13 +1,69 @@
 package tictactow;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.Arrays;
 
 public class Launcher {
 
     public static void main(String[] args) {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+
+        // Batch mode: Launcher selfplay <size> <games> [x:o ...]
+        if(args.length > 0 && args[0].equals("selfplay")) {
+            SelfPlay.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Solve 3x3 and write the tablebase: Launcher tablebase [file]
+        if(args.length > 0 && args[0].equals("tablebase")) {
+            try {
+                Tablebase.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch(IOException ex) {
+                System.out.println("Could not write the tablebase: " + ex.getMessage());
+            }
+            return;
+        }
+
+        // Solve 4x4 by retrograde analysis, resuming an earlier run: Launcher solve [file] [size]
+        if(args.length > 0 && args[0].equals("solve")) {
+            try {
+                EndgameSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch(IOException ex) {
+                System.out.println("Could not use the endgame store: " + ex.getMessage());
+            }
+            return;
+        }
+
+        // Compare parallel and single threaded search: Launcher speedup <size> <depth> [threads] [win length]
+        if(args.length > 0 && args[0].equals("speedup")) {
+            ParallelSearch.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Score boards read from stdin: Launcher evaluate <size> [win length] [ms per board]
+        if(args.length > 0 && args[0].equals("evaluate")) {
+            BatchEvaluator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Summarize recorded games: Launcher records [file]
+        if(args.length > 0 && args[0].equals("records")) {
+            try {
+                GameRecordReader.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch(IOException ex) {
+                System.out.println("Could not read the game records: " + ex.getMessage());
+            }
+            return;
+        }
+
+        // Host networked games: Launcher server [port]
+        if(args.length > 0 && args[0].equals("server")) {
+            try {
+                MatchServer.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch(IOException ex) {
+                System.out.println("Could not start the server: " + ex.getMessage());
+            }
+            return;
+        }
 
         while(true) {
             System.out.println("\nWelcome to Tic-Tac-Toe!");
@@ -16,7 +72,14 @@ public class Launcher {
 
             int response;
             try {
-                response = Integer.parseInt(reader.readLine());
+                String line = ConsoleInput.readLine();
+
+                // Nothing left to read, e.g. piped input ran out.
+                if(line == null) {
+                    System.out.println("Goodbye!");
+                    return;
+                }
+                response = Integer.parseInt(line);
             } catch(IOException | NumberFormatException ex) {
                 System.out.println("Invalid Input. Please enter a number.");
                 continue;
@@ -29,10 +92,12 @@ public class Launcher {
             else if(response == 1) {
                 System.out.println("Launching Multiplayer Tic-tac-toe...");
                 Tictactoe.run();
+                BoardRenderer.console().release();
             }
             else if(response == 2) {
                 System.out.println("Launching AI Tic-tac-toe...");
                 AITictactoe.run();
+                BoardRenderer.console().release();
             }
             else {
                 System.out.println("Invalid response. Please enter a number from 1-3.");
@@ -0,0 +1,180 @@
+package tictactow;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Match is one networked game between two PlayerConnections. Like the
+ * console multiplayer mode, every turn has a time limit and a player
+ * who exceeds it forfeits the turn. After MAX_TIMEOUTS turns in a row
+ * time out nobody is playing any more and the match is abandoned.
+ *
+ * Both connections and the shared turn timer call into the match, so every
+ * method holds the match lock. Under the lock messages are only queued on
+ * the connections, so a client that stops reading never holds up the
+ * match or the timer. The lock is a ReentrantLock rather than a monitor
+ * since the connections run on virtual threads.
+ *
+ * Messages sent to the players:
+ *      START <size> <X|O> <win length>, BOARD <tiles>, TURN <X|O> <seconds>,
+ *      MOVED <X|O> <tile>, TIMEOUT <X|O>, WIN <X|O>, DRAW,
+ *      FORFEIT <X|O>, ABANDONED, ERROR <message>
+ */
+class Match {
+
+    static final int MAX_TIMEOUTS = 4;          // Turns in a row that may time out, two for each player.
+
+    private final GameState game;               // The game being played.
+    private final PlayerConnection xPlayer;     // Player moving first.
+    private final PlayerConnection oPlayer;
+    private final ScheduledExecutorService timer;
+    private final long turnTimeLimitMillis;     // Time a player has to make a move.
+    private final Runnable onFinish;            // Called once when the match ends.
+    private final ReentrantLock lock = new ReentrantLock();
+    private ScheduledFuture<?> deadline;        // Timeout of the current turn.
+    private int timeouts;                       // Turns in a row that timed out.
+    private boolean finished;
+
+    Match(GameEngine rules, PlayerConnection xPlayer, PlayerConnection oPlayer,
+            ScheduledExecutorService timer, long turnTimeLimitMillis, Runnable onFinish) {
+        this.game = rules.newGame();
+        this.xPlayer = xPlayer;
+        this.oPlayer = oPlayer;
+        this.timer = timer;
+        this.turnTimeLimitMillis = turnTimeLimitMillis;
+        this.onFinish = onFinish;
+    }
+
+    // Tell both players the match started and begin the first turn.
+    void start() {
+        lock.lock();
+        try {
+            xPlayer.setMatch(this, GameState.X);
+            oPlayer.setMatch(this, GameState.O);
+            xPlayer.send("START " + game.getSize() + " X " + game.getWinLength());
+            oPlayer.send("START " + game.getSize() + " O " + game.getWinLength());
+
+            // A player that disconnected after leaving the lobby found no
+            // match to abandon, so it forfeits here instead.
+            if(xPlayer.isClosed() || oPlayer.isClosed()) {
+                finish("FORFEIT " + (xPlayer.isClosed() ? 'X' : 'O'));
+                return;
+            }
+            broadcast(boardLine());
+            nextTurn();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A player asks to place a piece on a tile.
+    void move(PlayerConnection connection, int tile) {
+        lock.lock();
+        try {
+            if(finished) {
+                connection.send("ERROR The game is over.");
+                return;
+            }
+            int player = connection.getPlayer();
+            if(player != game.toMove()) {
+                connection.send("ERROR Not your turn.");
+                return;
+            }
+            if(tile < 0 || tile >= game.getCellCount() || !game.isEmpty(tile)) {
+                connection.send("ERROR Invalid tile.");
+                return;
+            }
+
+            GameStatus status = game.apply(tile, player);
+            timeouts = 0;
+            broadcast("MOVED " + symbol(player) + " " + (tile+1));
+            broadcast(boardLine());
+
+            if(status.hasWinner()) finish("WIN " + symbol(player));
+            else if(status == GameStatus.DRAW) finish("DRAW");
+            else nextTurn();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The turn timer fired. Ignored if a move was made in the meantime.
+    private void timeout(int turn) {
+        lock.lock();
+        try {
+            if(finished || turn != game.getHistoryLength()) return;
+
+            int player = game.toMove();
+            game.pass();
+            broadcast("TIMEOUT " + symbol(player));
+            if(++timeouts >= MAX_TIMEOUTS) finish("ABANDONED");
+            else nextTurn();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A player disconnected or quit, the opponent wins by forfeit.
+    void abandon(PlayerConnection connection) {
+        lock.lock();
+        try {
+            if(finished) return;
+            finish("FORFEIT " + symbol(connection.getPlayer()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void sendState(PlayerConnection connection) {
+        lock.lock();
+        try {
+            connection.send(boardLine());
+            if(!finished) connection.send("TURN " + symbol(game.toMove()) + " " + turnTimeLimitMillis / 1000);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isFinished() {
+        lock.lock();
+        try {
+            return finished;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Announce the next turn and schedule its time limit.
+    // Called with the lock held, like finish() and broadcast().
+    private void nextTurn() {
+        if(deadline != null) deadline.cancel(false);
+        int turn = game.getHistoryLength();
+        deadline = timer.schedule(() -> timeout(turn), turnTimeLimitMillis, TimeUnit.MILLISECONDS);
+        broadcast("TURN " + symbol(game.toMove()) + " " + turnTimeLimitMillis / 1000);
+    }
+
+    private void finish(String result) {
+        finished = true;
+        if(deadline != null) deadline.cancel(false);
+        broadcast(result);
+        onFinish.run();
+    }
+
+    private void broadcast(String line) {
+        xPlayer.send(line);
+        oPlayer.send(line);
+    }
+
+    // The board as one line, . for an empty tile.
+    private String boardLine() {
+        StringBuilder line = new StringBuilder("BOARD ");
+        for(int i = 0; i < game.getCellCount(); i++) line.append(".XO".charAt(game.get(i)));
+        return line.toString();
+    }
+
+    private static char symbol(int player) {
+        return player == GameState.X ? 'X' : 'O';
+    }
+}
@@ -0,0 +1,135 @@
+package tictactow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * MatchServer hosts networked tic-tac-toe games over TCP. Every connection
+ * gets its own virtual thread, so thousands of players only cost a few
+ * kilobytes each while they wait for input. Players join a lobby per board
+ * size and win length and are paired into independent Matches as soon as two are waiting.
+ * All turn time limits share a single timer thread. Neither the lobby nor
+ * the timer writes to a socket, they only queue lines on the connections.
+ *
+ * The protocol is line based, see PlayerConnection for the commands a
+ * client can send and Match for the messages it receives.
+ *
+ * Usage: MatchServer [port]
+ */
+public class MatchServer implements Closeable {
+
+    static final int DEFAULT_PORT = 7777;
+    static final int MAXIMUM_SIZE = 30;                 // Largest board a client may ask for.
+
+    private final ServerSocket serverSocket;
+    private final long turnTimeLimitMillis;             // Time a player has to make a move.
+    private final ExecutorService connections =         // One virtual thread per connection.
+        Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService timer;       // Turn time limits of every match.
+    private final Map<Long, PlayerConnection> waiting = new HashMap<>();       // Lobby, one waiting player per board size and win length.
+    private final ReentrantLock lobbyLock = new ReentrantLock();                // Guards waiting.
+    private final AtomicInteger activeMatches = new AtomicInteger();
+
+    public MatchServer(int port) throws IOException {
+        this(port, Tictactoe.TURN_TIME_LIMIT*1000L);
+    }
+
+    public MatchServer(int port, long turnTimeLimitMillis) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.turnTimeLimitMillis = turnTimeLimitMillis;
+
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "match-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Turns usually end before their deadline, drop those deadlines right away.
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.timer = scheduler;
+    }
+
+    // Returns the port the server listens on, useful when started on port 0.
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveMatches() {
+        return activeMatches.get();
+    }
+
+    // Accept connections on a background thread until close() is called.
+    public void start() {
+        Thread acceptor = new Thread(() -> {
+            while(!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    socket.setTcpNoDelay(true);
+                    connections.submit(new PlayerConnection(this, socket));
+                } catch(IOException ex) {
+                    // Closed while accepting, or one failed connection; keep serving the rest.
+                }
+            }
+        }, "match-server");
+        acceptor.start();
+    }
+
+    // Put a player in the lobby of a board size and win length, or
+    // start a match with the player already waiting there.
+    void join(PlayerConnection connection, int size, int winLength) {
+        PlayerConnection opponent;
+        lobbyLock.lock();
+        try {
+            waiting.values().remove(connection);
+
+            long lobby = ((long) size << 32) | winLength;
+            opponent = waiting.remove(lobby);
+            if(opponent == null) waiting.put(lobby, connection);
+        } finally {
+            lobbyLock.unlock();
+        }
+        if(opponent == null) {
+            connection.send("WAITING " + size + " " + winLength);
+            return;
+        }
+
+        // The pair left the lobby, the match is started outside its lock.
+        activeMatches.incrementAndGet();
+        Match match = new Match(new GameEngine(size, winLength), opponent, connection, timer, turnTimeLimitMillis,
+            () -> activeMatches.decrementAndGet());
+        match.start();
+    }
+
+    // Remove a disconnected player from the lobby.
+    void leave(PlayerConnection connection) {
+        lobbyLock.lock();
+        try {
+            waiting.values().remove(connection);
+        } finally {
+            lobbyLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        MatchServer server = new MatchServer(port);
+        server.start();
+        System.out.println("Tic-Tac-Toe server listening on port " + server.getPort() + ".");
+    }
+}
@@ -0,0 +1,83 @@
+package tictactow;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * MediumAI is a simple strategy which takes its own winning tile when it
+ * has one, else blocks the tile the opponent would win on, else keeps
+ * placing along a target line of its own. Threats are found on rows,
+ * columns and diagonals with a ThreatScan.
+ */
+public class MediumAI implements AIPlayer {
+
+    private int target = -1;        // Keeps track of target line.
+
+    @Override
+    public int chooseMove(GameState game) {
+        if(game.isOver() || game.getPieceCount() == game.getCellCount()) return -1;
+
+        int player = game.toMove();
+        int opponent = GameState.opponent(player);
+        ThreatScan threats = ThreatScan.of(game);
+
+        // Winning Move
+        // Complete a line if one only misses a single piece.
+        int winningMove = threats.firstWinningMove(player);
+        if(winningMove != -1) return winningMove;
+
+        // Defensive Strategy
+        // Find a possible victory from the opponent
+        // and close it. If one wasnt found, proceed to
+        // offensive strategy.
+        int blockingMove = threats.firstBlockingMove(player);
+        if(blockingMove != -1) return blockingMove;
+
+        // Offensive Strategy
+        // Select a line and keep placing on that
+        // line unless no avenue for victory.
+        // If blocked, switch to another line.
+        // If all lines blocked, place randomly.
+        BoardLines lines = game.getLines();
+        if(target == -1 || target >= lines.getLineCount() || game.countOnLine(opponent, target) > 0)
+            target = pickOpenLine(game, opponent);
+
+        // Keep placing on a selected line.
+        if(target != -1) {
+            for(int cell : lines.cellsOf(target)) {
+                if(game.isEmpty(cell)) return cell;
+            }
+        }
+
+        // If all lines blocked, place randomly.
+        int skip = ThreadLocalRandom.current().nextInt(game.getCellCount() - game.getPieceCount());
+        for(int position = 0; ; position++) {
+            if(game.isEmpty(position) && skip-- == 0) return position;
+        }
+    }
+
+    // Pick a random line the opponent has no pieces on, or -1 if every
+    // line is blocked.
+    static int pickOpenLine(GameState game, int opponent) {
+        int lineCount = game.getLines().getLineCount();
+        int open = 0;
+        for(int line = 0; line < lineCount; line++) {
+            if(game.countOnLine(opponent, line) == 0) open++;
+        }
+        if(open == 0) return -1;
+
+        int skip = ThreadLocalRandom.current().nextInt(open);
+        for(int line = 0; ; line++) {
+            if(game.countOnLine(opponent, line) == 0 && skip-- == 0) return line;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "medium";
+    }
+
+    @Override
+    public void reset() {
+        target = -1;
+    }
+}
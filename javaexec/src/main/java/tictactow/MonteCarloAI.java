@@ -0,0 +1,47 @@
+package tictactow;
+
+/*
+ * MonteCarloAI picks its moves with a MonteCarloSearch limited to a time
+ * budget, and optionally a playout budget, per move. It plays boards of
+ * any size without needing a full search, which makes it the strongest
+ * choice on boards larger than 4x4.
+ */
+public class MonteCarloAI implements AIPlayer {
+
+    private final long timeLimitMillis;     // Milliseconds the search may take per move by default.
+    private final long maxPlayouts;         // Playouts per move, 0 for no limit.
+    private final MonteCarloSearch search;
+    private MonteCarloResult lastResult;    // Result of the most recent search.
+
+    public MonteCarloAI(long timeLimitMillis) {
+        this(timeLimitMillis, 0, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MonteCarloAI(long timeLimitMillis, long maxPlayouts, int threads) {
+        this.timeLimitMillis = timeLimitMillis;
+        this.maxPlayouts = maxPlayouts;
+        this.search = new MonteCarloSearch(threads);
+    }
+
+    @Override
+    public int chooseMove(GameState game) {
+        return chooseMove(game, timeLimitMillis);
+    }
+
+    @Override
+    public int chooseMove(GameState game, long timeLimitMillis) {
+        if(game.isOver()) return -1;
+        lastResult = search.findBestMove(game, timeLimitMillis, maxPlayouts);
+        return lastResult.getMove();
+    }
+
+    // Returns the statistics of the most recent move, or null.
+    public MonteCarloResult getLastResult() {
+        return lastResult;
+    }
+
+    @Override
+    public String getName() {
+        return "mcts";
+    }
+}
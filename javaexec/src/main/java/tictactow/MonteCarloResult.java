@@ -0,0 +1,54 @@
+package tictactow;
+
+/*
+ * MonteCarloResult holds the move chosen by the MonteCarloSearch together
+ * with the amount of playouts behind it, so callers can report playouts
+ * per second and size the hardware for large board matches.
+ */
+public class MonteCarloResult {
+
+    private final int move;                 // Index of the chosen tile.
+    private final double expectedScore;     // Average playout result of the move, 1 is a win and 0.5 a draw.
+    private final long playouts;            // Amount of random games played.
+    private final long elapsedNanos;        // Wall clock time spent searching.
+    private final int threads;              // Amount of threads that played.
+
+    MonteCarloResult(int move, double expectedScore, long playouts, long elapsedNanos, int threads) {
+        this.move = move;
+        this.expectedScore = expectedScore;
+        this.playouts = playouts;
+        this.elapsedNanos = elapsedNanos;
+        this.threads = threads;
+    }
+
+    public int getMove() {
+        return move;
+    }
+
+    public double getExpectedScore() {
+        return expectedScore;
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000L;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public double getPlayoutsPerSecond() {
+        if(elapsedNanos == 0) return 0;
+        return playouts / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("played %d games on %d threads in %d ms (%.0f playouts/s, expected score %.1f%%)",
+            playouts, threads, getElapsedMillis(), getPlayoutsPerSecond(), 100 * expectedScore);
+    }
+}
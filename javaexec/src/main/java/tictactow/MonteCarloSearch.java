@@ -0,0 +1,188 @@
+package tictactow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/*
+ * MonteCarloSearch picks moves with Monte Carlo Tree Search (UCT). Instead
+ * of searching every line like AlphaBetaSearch, it plays random games from
+ * the most promising positions and keeps win statistics in a tree, which
+ * gives reasonable moves on boards far too large for minimax.
+ *
+ * Several threads grow one shared tree. The node statistics are updated
+ * with atomic field updaters and children are published with a single
+ * compare-and-set, so no thread ever waits for a lock. A thread entering a
+ * node adds a visit before its playout finishes (a virtual loss), which
+ * steers the other threads towards different parts of the tree.
+ */
+public class MonteCarloSearch {
+
+    static final double EXPLORATION = 1.41;    // UCT exploration constant, about sqrt(2).
+    static final int EXPANSION_VISITS = 8;      // Visits a leaf needs before it gets children.
+
+    private final int threads;                  // Amount of threads growing the tree.
+
+    public MonteCarloSearch(int threads) {
+        if(threads < 1)
+            throw new IllegalArgumentException("At least one thread is needed.");
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    // Run playouts from game until the time limit passes or maxPlayouts
+    // were played, 0 meaning no playout limit. Returns the most visited
+    // move, or a MonteCarloResult with a move of -1 if the game is over.
+    public MonteCarloResult findBestMove(GameState game, long timeLimitMillis, long maxPlayouts) {
+        long start = System.nanoTime();
+        if(game.isOver()) return new MonteCarloResult(-1, 0, 0, 0, threads);
+
+        Node root = new Node(-1, GameState.opponent(game.toMove()));
+        long deadline = start + timeLimitMillis*1000000L;
+        AtomicLong budget = new AtomicLong(maxPlayouts > 0 ? maxPlayouts : Long.MAX_VALUE);
+
+        // The calling thread works as well, helpers join it when there are more threads.
+        List<Future<?>> helpers = new ArrayList<>();
+        List<SearchWorkers.Claim> claims = new ArrayList<>();
+        for(int i = 1; i < threads; i++) {
+            SearchWorkers.Claim claim = new SearchWorkers.Claim();
+            claims.add(claim);
+            helpers.add(SearchWorkers.submit(() -> {
+                if(claim.start()) grow(root, game, deadline, budget);
+                return null;
+            }));
+        }
+        grow(root, game, deadline, budget);
+        try {
+            // Helpers still queued behind other engines are skipped.
+            for(int i = 0; i < helpers.size(); i++) {
+                if(!claims.get(i).skip()) helpers.get(i).get();
+            }
+        } catch(InterruptedException | ExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        // The most visited move is the most reliable one.
+        Node best = null;
+        for(Node child : root.children) {
+            if(best == null || child.visits > best.visits) best = child;
+        }
+        long elapsed = System.nanoTime() - start;
+        return new MonteCarloResult(best.move, best.visits == 0 ? 0 : best.score / (2.0*best.visits),
+            root.visits, elapsed, threads);
+    }
+
+    // Repeat selection, expansion, playout and backpropagation on a
+    // private PlayoutEngine until the budget is used up.
+    private static void grow(Node root, GameState game, long deadline, AtomicLong budget) {
+        PlayoutEngine engine = new PlayoutEngine(game.getSize(), game.getWinLength());
+        engine.setPosition(game);
+        Node[] path = new Node[game.getCellCount() + 1];
+
+        // The root always has children, so every playout starts with a move.
+        root.expand(engine);
+
+        for(long playouts = 0; ; playouts++) {
+            if((playouts & 63) == 0 && System.nanoTime() > deadline) return;
+            if(budget.getAndDecrement() <= 0) return;
+            engine.reset();
+
+            // Selection: follow the best UCT child down to a leaf.
+            Node node = root;
+            int depth = 0;
+            path[depth++] = root;
+            root.addVisit();
+            while(node.children != null && !engine.isOver()) {
+                node = node.select();
+                node.addVisit();
+                path[depth++] = node;
+                engine.play(node.move);
+            }
+
+            // Expansion: a leaf visited often enough gets children.
+            if(!engine.isOver() && node.visits >= EXPANSION_VISITS) {
+                node.expand(engine);
+                node = node.select();
+                node.addVisit();
+                path[depth++] = node;
+                engine.play(node.move);
+            }
+
+            // Playout: random moves until the game ends.
+            int winner = engine.playout();
+
+            // Backpropagation: 2 points for a win and 1 for a draw,
+            // counted for the player who moved into each node.
+            for(int i = 0; i < depth; i++) {
+                Node visited = path[i];
+                if(winner == GameState.EMPTY) visited.addScore(1);
+                else if(winner == visited.player) visited.addScore(2);
+            }
+        }
+    }
+
+    // Node is one position of the tree, reached by move.
+    private static final class Node {
+
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicIntegerFieldUpdater<Node> SCORE =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "score");
+        private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+        final int move;                     // Tile placed to reach this node.
+        final int player;                   // Player who placed it.
+        volatile int visits;                // Playouts through this node, finished or not.
+        volatile int score;                 // 2 per win and 1 per draw for player.
+        volatile Node[] children;           // Null until expanded.
+
+        Node(int move, int player) {
+            this.move = move;
+            this.player = player;
+        }
+
+        void addVisit() {
+            VISITS.incrementAndGet(this);
+        }
+
+        void addScore(int points) {
+            SCORE.addAndGet(this, points);
+        }
+
+        // Create a child per legal move. Only the first thread to
+        // finish publishes its children, the others are dropped.
+        void expand(PlayoutEngine engine) {
+            if(children != null) return;
+            int count = engine.getEmptyCount();
+            Node[] created = new Node[count];
+            for(int i = 0; i < count; i++) created[i] = new Node(engine.emptyCell(i), engine.toMove());
+            CHILDREN.compareAndSet(this, null, created);
+        }
+
+        // Returns the child with the highest UCT value, unvisited children first.
+        Node select() {
+            Node[] options = children;
+            double logVisits = Math.log(Math.max(1, visits));
+            Node best = options[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for(Node child : options) {
+                int childVisits = child.visits;
+                if(childVisits == 0) return child;
+                double value = child.score / (2.0*childVisits) + EXPLORATION*Math.sqrt(logVisits / childVisits);
+                if(value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+}
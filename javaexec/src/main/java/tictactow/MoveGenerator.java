@@ -0,0 +1,167 @@
+package tictactow;
+
+import java.util.Arrays;
+
+/*
+ * MoveGenerator lists the empty tiles of a search position, best
+ * candidates first, so alpha-beta cuts off as early as possible:
+ *
+ *      1. the best move stored in the transposition table,
+ *      2. tiles winning on the spot, then tiles blocking a win,
+ *      3. tiles next to a piece already on the board,
+ *      4. tiles with a high history score, then tiles on many lines.
+ *
+ * Threats come from the set of lines one piece short of a win, and
+ * neighbours from a count of pieces around every tile. Both are kept up
+ * to date on every move from the lines through the tile, so generating
+ * moves never scans the whole board's lines.
+ */
+public class MoveGenerator {
+
+    private final int size;                     // The length and width of the board.
+    private final int cellCount;
+    private final WinTracker tracker;
+    private final BoardLines lines;
+    private final int lineLength;               // Pieces on a line needed to win.
+    private final int[] cells;                  // Piece on every tile, shared with the search.
+    private final int[] history;                // History heuristic score per tile.
+    private final int[] centrality;             // Amount of lines through a tile.
+    private final int[] neighbours;             // Pieces on the up to 8 tiles around a tile.
+    private final int[][] moveBuffers;          // Reused move list per ply.
+    private final long[] keyBuffer;             // Order keys of the list being sorted.
+    private final int[] threats;                // 2 for a winning tile, 1 for a blocking one.
+    private final int[] threatCells;            // Tiles with a threat set, to clear them again.
+    private final int[] threatLines;            // Lines one piece short of a win for one player only.
+    private final int[] threatIndex;            // Position of every line in threatLines, -1 if absent.
+    private int threatLineCount;                // Amount of entries in threatLines.
+
+    public MoveGenerator(WinTracker tracker, int[] cells) {
+        this.tracker = tracker;
+        this.lines = tracker.getLines();
+        this.size = lines.getSize();
+        this.cellCount = size*size;
+        this.lineLength = lines.getLineLength();
+        this.cells = cells;
+        this.history = new int[cellCount];
+        this.centrality = new int[cellCount];
+        for(int i = 0; i < cellCount; i++) centrality[i] = lines.linesThrough(i).length;
+        this.neighbours = new int[cellCount];
+        this.moveBuffers = new int[cellCount + 1][];
+        this.keyBuffer = new long[cellCount];
+        this.threats = new int[cellCount];
+        this.threatCells = new int[cellCount];
+        this.threatLines = new int[lines.getLineCount()];
+        this.threatIndex = new int[lines.getLineCount()];
+        Arrays.fill(threatIndex, -1);
+    }
+
+    // Count a piece placed on or removed from a tile, delta 1 or -1.
+    // Call it once the WinTracker holds the change.
+    public void update(int cell, int delta) {
+        for(int line : lines.linesThrough(cell)) updateThreat(line);
+
+        int row = cell / size, column = cell % size;
+        for(int r = Math.max(0, row-1); r <= Math.min(size-1, row+1); r++) {
+            for(int c = Math.max(0, column-1); c <= Math.min(size-1, column+1); c++) {
+                neighbours[r*size + c] += delta;
+            }
+        }
+        neighbours[cell] -= delta;
+    }
+
+    // Reward a move that caused a cutoff at the given remaining depth.
+    public void rewardCutoff(int move, int depth) {
+        history[move] += depth*depth;
+    }
+
+    // Halve every history score so old cutoffs fade out.
+    public void ageHistory() {
+        for(int i = 0; i < cellCount; i++) history[i] >>= 1;
+    }
+
+    // Forget the neighbour counts and threats of every piece.
+    public void clear() {
+        for(int i = 0; i < cellCount; i++) neighbours[i] = 0;
+        for(int i = 0; i < threatLineCount; i++) threatIndex[threatLines[i]] = -1;
+        threatLineCount = 0;
+    }
+
+    // Add a line to the threatened lines or take it out, following the
+    // piece counts of the tracker.
+    private void updateThreat(int line) {
+        int x = tracker.count(AlphaBetaSearch.X, line), o = tracker.count(AlphaBetaSearch.O, line);
+        boolean threatened = (x == lineLength-1 && o == 0) || (o == lineLength-1 && x == 0);
+        int index = threatIndex[line];
+        if(threatened && index == -1) {
+            threatIndex[line] = threatLineCount;
+            threatLines[threatLineCount++] = line;
+        }
+        else if(!threatened && index != -1) {
+            int last = threatLines[--threatLineCount];
+            threatLines[index] = last;
+            threatIndex[last] = index;
+            threatIndex[line] = -1;
+        }
+    }
+
+    // Fill the move buffer of a ply with every empty tile in the order
+    // above and return it. The first emptyCount entries are the moves.
+    public int[] generate(int ply, int player, int tableMove) {
+        int[] moves = moveBuffers[ply];
+        if(moves == null) moves = moveBuffers[ply] = new int[cellCount];
+
+        int count = 0;
+        for(int i = 0; i < cellCount; i++) {
+            if(cells[i] == AlphaBetaSearch.EMPTY) moves[count++] = i;
+        }
+
+        int threatCount = findThreats(player);
+
+        // Keys are computed once, the sort only compares them.
+        long[] keys = keyBuffer;
+        for(int i = 0; i < count; i++) keys[i] = orderKey(moves[i], tableMove);
+        for(int i = 0; i < threatCount; i++) threats[threatCells[i]] = 0;
+
+        // Insertion sort, the lists are short and mostly ordered already.
+        for(int i = 1; i < count; i++) {
+            int move = moves[i];
+            long key = keys[i];
+            int j = i - 1;
+            while(j >= 0 && keys[j] < key) {
+                moves[j+1] = moves[j];
+                keys[j+1] = keys[j];
+                j--;
+            }
+            moves[j+1] = move;
+            keys[j+1] = key;
+        }
+        return moves;
+    }
+
+    private long orderKey(int move, int tableMove) {
+        if(move == tableMove) return Long.MAX_VALUE;
+        long key = ((long) threats[move] << 60)
+            + ((long) Math.min(history[move], (1 << 30) - 1) << 8)
+            + centrality[move];
+        if(neighbours[move] > 0) key += 1L << 58;
+        return key;
+    }
+
+    // Mark the empty tile of every line one piece short of a win, 2 if
+    // it wins for player and 1 if it blocks the opponent. Returns the
+    // amount of tiles marked in threatCells.
+    private int findThreats(int player) {
+        int marked = 0;
+        for(int i = 0; i < threatLineCount; i++) {
+            int line = threatLines[i];
+            int threat = tracker.count(player, line) > 0 ? 2 : 1;
+
+            for(int cell : lines.cellsOf(line)) {
+                if(cells[cell] != AlphaBetaSearch.EMPTY || threats[cell] >= threat) continue;
+                if(threats[cell] == 0) threatCells[marked++] = cell;
+                threats[cell] = threat;
+            }
+        }
+        return marked;
+    }
+}
@@ -0,0 +1,116 @@
+package tictactow;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * OpeningBook remembers the moves an AI proved by searching so they are
+ * answered instantly the next time the same position comes up. Only
+ * searches that reached the end of the game or found a forced result are
+ * kept; a search cut short by its time limit may choose differently once
+ * it gets deeper, so its move is never replayed. Positions are keyed
+ * canonically together with the player to move, so every rotation and
+ * reflection of a board shares one entry, and moves are stored in the
+ * canonical orientation.
+ *
+ * Positions within the first bookPlies pieces are the opening book and
+ * are kept for good. Every later position goes into a move cache of at
+ * most capacity entries that evicts the least recently used one.
+ *
+ * Like an AIPlayer, an OpeningBook is not thread safe.
+ */
+public class OpeningBook {
+
+    static final int DEFAULT_BOOK_PLIES = 4;    // Pieces up to which a position is an opening.
+
+    private final int bookPlies;
+    private final int capacity;                 // Most entries the book and the cache each hold.
+    private final Map<Long, Integer> book;      // Opening moves, never evicted.
+    private final LinkedHashMap<Long, Integer> cache;   // Later moves in least recently used order.
+    private final int[] symmetry = new int[1];  // Symmetry of the last key().
+    private long hits;                          // Amount of lookups that found a move.
+    private long misses;                        // Amount of lookups that did not.
+
+    public OpeningBook(int capacity) {
+        this(capacity, DEFAULT_BOOK_PLIES);
+    }
+
+    public OpeningBook(int capacity, int bookPlies) {
+        this.capacity = capacity;
+        this.bookPlies = bookPlies;
+        this.book = new HashMap<>();
+        this.cache = new LinkedHashMap<Long, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > OpeningBook.this.capacity;
+            }
+        };
+    }
+
+    // Returns the remembered move for the player to move in game,
+    // or -1 if the position is not known.
+    public int lookup(GameState game) {
+        long key = key(game);
+        Integer move = game.getPieceCount() < bookPlies ? book.get(key) : cache.get(key);
+        if(move == null) {
+            misses++;
+            return -1;
+        }
+        hits++;
+        return BoardSymmetry.forSize(game.getSize()).inverse(symmetry[0], move);
+    }
+
+    // Remember the move a search chose in game, provided the search
+    // was complete. Returns true if the move was stored.
+    public boolean store(GameState game, SearchResult result) {
+        if(result == null || result.getMove() == -1 || !isComplete(game, result)) return false;
+        long key = key(game);
+        Integer canonical = BoardSymmetry.forSize(game.getSize()).transform(symmetry[0], result.getMove());
+        if(game.getPieceCount() >= bookPlies) cache.put(key, canonical);
+        else if(book.size() < capacity) book.put(key, canonical);
+        else return false;
+        return true;
+    }
+
+    // A result is final once it is forced or its last iteration
+    // searched every remaining tile.
+    static boolean isComplete(GameState game, SearchResult result) {
+        return result.isDecided() || result.getDepth() >= game.getCellCount() - game.getPieceCount();
+    }
+
+    // The canonical key of the board mixed with the player to move and
+    // the rules, since boards of different sizes or win lengths share
+    // Zobrist keys.
+    private long key(GameState game) {
+        long key = BoardSymmetry.forSize(game.getSize()).canonicalKey(game, symmetry);
+        key = BoardSymmetry.withToMove(key, game.toMove());
+        return key ^ (game.getSize()*0x9E3779B97F4A7C15L) ^ (game.getWinLength()*0xC2B2AE3D27D4EB4FL);
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    // Returns the amount of positions remembered.
+    public int size() {
+        return book.size() + cache.size();
+    }
+
+    // Forget every position and reset the counters.
+    public void clear() {
+        book.clear();
+        cache.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d positions known, %d hits, %d misses", size(), hits, misses);
+    }
+}
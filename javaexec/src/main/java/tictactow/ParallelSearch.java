@@ -0,0 +1,128 @@
+package tictactow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/*
+ * ParallelSearch spreads an AlphaBetaSearch over several threads with
+ * Lazy SMP: every thread runs its own iterative deepening search of the
+ * same position and all of them share one lock-free TranspositionTable.
+ * Helpers start one ply deeper on every other thread, so their results
+ * reach the table before the main thread gets there and it cuts off
+ * earlier. Once the main thread finishes, the helpers are stopped and
+ * the deepest completed iteration of any thread is played.
+ *
+ * Usage: ParallelSearch <size> <depth> [threads] [win length]
+ *      Prints the speedup of a fixed depth search from the empty board
+ *      over the same search on one thread.
+ */
+public class ParallelSearch {
+
+    private final int size;                     // The length and width of the board.
+    private final int winLength;                // Amount of pieces in a row needed to win.
+    private final TranspositionTable table;     // Shared by every thread.
+    private final AlphaBetaSearch[] searches;   // The first one runs on the calling thread.
+
+    public ParallelSearch(int size, int winLength, int threads) {
+        if(threads < 1)
+            throw new IllegalArgumentException("At least one thread is needed.");
+        this.size = size;
+        this.winLength = winLength;
+        this.table = new TranspositionTable(AlphaBetaSearch.tableSlots(size));
+        this.searches = new AlphaBetaSearch[threads];
+        for(int i = 0; i < threads; i++) searches[i] = new AlphaBetaSearch(size, winLength, table);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+
+    // Forget every stored search result.
+    public void clearTable() {
+        table.clear();
+    }
+
+    // Find the best move for the player to move in game within the time budget.
+    public SearchResult findBestMove(GameState game, long timeLimitMillis) {
+        return findBestMove(game, timeLimitMillis, AlphaBetaSearch.MAX_PLY);
+    }
+
+    // Find the best move for the player to move in game, searching no
+    // deeper than maxDepth. The nodes and table lookups of the result
+    // add up every thread.
+    public SearchResult findBestMove(GameState game, long timeLimitMillis, int maxDepth) {
+        long start = System.nanoTime();
+        int player = game.toMove();
+        for(AlphaBetaSearch search : searches) search.setPosition(game);
+        long searchMillis = Math.max(1, timeLimitMillis - (System.nanoTime() - start) / 1000000L);
+
+        List<Future<SearchResult>> helpers = new ArrayList<>();
+        List<SearchWorkers.Claim> claims = new ArrayList<>();
+        for(int i = 1; i < searches.length; i++) {
+            AlphaBetaSearch helper = searches[i];
+            int firstDepth = 1 + (i & 1);
+            SearchWorkers.Claim claim = new SearchWorkers.Claim();
+            claims.add(claim);
+            helpers.add(SearchWorkers.submit(() -> claim.start() ? helper.findBestMove(player, searchMillis, maxDepth, firstDepth) : null));
+        }
+        SearchResult best = searches[0].findBestMove(player, searchMillis, maxDepth);
+        for(int i = 1; i < searches.length; i++) searches[i].stop();
+
+        long nodes = best.getNodes(), probes = best.getTableProbes(), hits = best.getTableHits();
+        try {
+            for(int i = 0; i < helpers.size(); i++) {
+                // Still queued behind other engines, it no longer helps.
+                if(claims.get(i).skip()) continue;
+                SearchResult result = helpers.get(i).get();
+                nodes += result.getNodes();
+                probes += result.getTableProbes();
+                hits += result.getTableHits();
+                if(result.getDepth() > best.getDepth()) best = result;
+            }
+        } catch(InterruptedException | ExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+        return new SearchResult(best.getMove(), best.getScore(), best.getDepth(), nodes, probes, hits, elapsed);
+    }
+
+    // Make a running search return its best move so far, safe to call
+    // from any thread. Has no effect on a search that starts later.
+    public void stop() {
+        for(AlphaBetaSearch search : searches) search.stop();
+    }
+
+    public static void main(String[] args) {
+        if(args.length < 2) {
+            System.out.println("Usage: ParallelSearch <size> <depth> [threads] [win length]");
+            return;
+        }
+        int size = Integer.parseInt(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int winLength = args.length > 3 ? Integer.parseInt(args[3]) : size;
+        GameState game = new GameEngine(size, winLength).newGame();
+
+        // Warm up the JIT on a shallower search first.
+        new ParallelSearch(size, winLength, threads).findBestMove(game, Long.MAX_VALUE / 2000000L, Math.max(1, depth-2));
+
+        SearchResult single = new ParallelSearch(size, winLength, 1).findBestMove(game, Long.MAX_VALUE / 2000000L, depth);
+        SearchResult parallel = new ParallelSearch(size, winLength, threads).findBestMove(game, Long.MAX_VALUE / 2000000L, depth);
+
+        System.out.println(String.format("%dx%d, %d in a row, depth %d", size, size, winLength, depth));
+        System.out.println(String.format("1 thread:   %d ms, %d nodes, score %d", single.getElapsedMillis(), single.getNodes(), single.getScore()));
+        System.out.println(String.format("%d threads: %d ms, %d nodes, score %d", threads, parallel.getElapsedMillis(), parallel.getNodes(), parallel.getScore()));
+        System.out.println(String.format("Speedup %.2fx", (double) Math.max(1, single.getElapsedMillis()) / Math.max(1, parallel.getElapsedMillis())));
+    }
+}
@@ -0,0 +1,177 @@
+package tictactow;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+ * PlayerConnection serves one client of the MatchServer. It runs on its
+ * own virtual thread, reads the client's commands line by line and hands
+ * them to the server or to the match the client is playing in.
+ *
+ * Output is queued and written by a second virtual thread, so the lobby,
+ * the matches and the turn timer never wait for a client. A client that
+ * stops reading and falls OUTBOX_LINES lines behind is disconnected.
+ *
+ * Commands: JOIN <size> [win length], MOVE <tile>, STATE, QUIT
+ */
+class PlayerConnection implements Runnable {
+
+    static final int OUTBOX_LINES = 1024;   // Lines a client may fall behind before it is dropped.
+
+    private final MatchServer server;       // Server that accepted the connection.
+    private final Socket socket;            // Connection to the client.
+    private final Writer out;               // Buffered output, written by the writer thread only.
+    private final BlockingQueue<String> outbox =
+        new ArrayBlockingQueue<>(OUTBOX_LINES);     // Lines waiting for the writer thread.
+    private volatile Thread writer;         // Drains the outbox, null before run().
+    private volatile boolean closed;
+    private volatile Match match;           // Latest match of the client, null before the first one.
+    private volatile int player;            // Piece of the client in its match.
+
+    PlayerConnection(MatchServer server, Socket socket) throws IOException {
+        this.server = server;
+        this.socket = socket;
+        this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void run() {
+        // A close() that ran before the writer was known can not have
+        // interrupted it, stop the writer here instead.
+        writer = Thread.ofVirtual().name("match-writer").start(this::drain);
+        if(closed) writer.interrupt();
+        try(BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            send("WELCOME tictactoe");
+
+            String line;
+            while((line = in.readLine()) != null) {
+                String[] command = line.trim().split("\\s+");
+                String name = command[0].toUpperCase();
+
+                if(name.equals("QUIT")) break;
+                else if(name.equals("JOIN")) join(command);
+                else if(name.equals("MOVE")) move(command);
+                else if(name.equals("STATE")) state();
+                else if(!name.isEmpty()) send("ERROR Unknown command " + command[0]);
+            }
+        } catch(IOException ex) {
+            // The client went away, clean up below.
+        } finally {
+            // Closed before looking for the match, so a match started in
+            // between sees the connection closed and ends it itself.
+            close();
+            server.leave(this);
+            Match current = getMatch();
+            if(current != null) current.abandon(this);
+        }
+    }
+
+    // JOIN <size> [win length]: wait in the lobby for an opponent on that
+    // board size and win length. The win length defaults to the size.
+    private void join(String[] command) {
+        Match current = getMatch();
+        if(current != null && !current.isFinished()) {
+            send("ERROR Already in a match.");
+            return;
+        }
+        try {
+            int size = Integer.parseInt(command[1]);
+            if(size < GameEngine.MINIMUM_SIZE || size > MatchServer.MAXIMUM_SIZE) {
+                send("ERROR Board size must be between " + GameEngine.MINIMUM_SIZE + " and " + MatchServer.MAXIMUM_SIZE + ".");
+                return;
+            }
+            int winLength = command.length > 2 ? Integer.parseInt(command[2]) : size;
+            if(winLength < GameEngine.MINIMUM_WIN_LENGTH || winLength > size) {
+                send("ERROR Win length must be between " + GameEngine.MINIMUM_WIN_LENGTH + " and the board size.");
+                return;
+            }
+            server.join(this, size, winLength);
+        } catch(ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+            send("ERROR Usage: JOIN <size> [win length]");
+        }
+    }
+
+    // MOVE <tile>: place a piece, tiles are numbered from 1 like on the console.
+    private void move(String[] command) {
+        Match current = getMatch();
+        if(current == null) {
+            send("ERROR Not in a match.");
+            return;
+        }
+        try {
+            current.move(this, Integer.parseInt(command[1])-1);
+        } catch(ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+            send("ERROR Usage: MOVE <tile>");
+        }
+    }
+
+    // STATE: send the board of the current match again.
+    private void state() {
+        Match current = getMatch();
+        if(current == null) send("ERROR Not in a match.");
+        else current.sendState(this);
+    }
+
+    // The player is set first, so whoever sees the match sees its piece.
+    void setMatch(Match match, int player) {
+        this.player = player;
+        this.match = match;
+    }
+
+    Match getMatch() {
+        return match;
+    }
+
+    int getPlayer() {
+        return player;
+    }
+
+    // Queue one line for the client without waiting for it to be
+    // written. A client whose outbox is full is disconnected.
+    void send(String line) {
+        if(closed) return;
+        if(!outbox.offer(line)) close();
+    }
+
+    // Write queued lines until the connection closes. Everything queued
+    // at the time is written before a flush, one packet for a burst.
+    private void drain() {
+        try {
+            while(!closed) {
+                String line = outbox.take();
+                do {
+                    out.write(line);
+                    out.write('\n');
+                } while((line = outbox.poll()) != null);
+                out.flush();
+            }
+        } catch(IOException | InterruptedException ex) {
+            // Closed, or the client can not be written to.
+        } finally {
+            close();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+        try {
+            socket.close();
+        } catch(IOException ex) {
+            // Already closed.
+        }
+        Thread current = writer;
+        if(current != null && current != Thread.currentThread()) current.interrupt();
+    }
+}
@@ -0,0 +1,161 @@
+package tictactow;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+ * Ponderer keeps a ParallelSearch busy while the opponent thinks. It
+ * first searches the opponent's position to predict their reply, which
+ * also fills the shared transposition table for every other reply, then
+ * searches the position after the predicted reply until it is stopped.
+ *
+ * If the opponent plays the predicted move, the answer is ready the
+ * moment they do. If not, the search of the actual position still
+ * starts from a warm table.
+ */
+public class Ponderer {
+
+    static final long MAX_PONDER_MILLIS = 60000;    // Pondering stops on its own after this.
+
+    private final ParallelSearch search;
+    private ExecutorService thread;             // Background thread, created on the first ponder.
+    private Future<?> running;                  // The current pondering, or null.
+    private volatile boolean stopping;          // Set by stop(), ends pondering between searches.
+    private volatile GameState predicted;       // Position after the predicted reply.
+    private volatile SearchResult answer;       // Best move in the predicted position.
+    private volatile boolean answerComplete;    // The answer search ended before it was stopped.
+    private long hits;                          // Predictions the opponent played.
+    private long misses;                        // Predictions the opponent did not play.
+
+    public Ponderer(ParallelSearch search) {
+        this.search = search;
+    }
+
+    // Start pondering on game, where the opponent is to move. The
+    // prediction of their reply gets at most predictMillis.
+    public void start(GameState game, long predictMillis) {
+        stop();
+        if(game.isOver()) return;
+        GameState position = game.copy();
+        stopping = false;
+        predicted = null;
+        answer = null;
+        answerComplete = false;
+        running = thread().submit(() -> {
+            SearchResult reply = search.findBestMove(position, predictMillis);
+            if(stopping || reply.getMove() == -1) return;
+            position.apply(reply.getMove());
+            if(position.isOver()) return;
+
+            predicted = position;
+            answer = search.findBestMove(position, MAX_PONDER_MILLIS);
+            answerComplete = !stopping;
+        });
+    }
+
+    // Stop pondering and wait until the search has let go of the engine.
+    // A pondering that failed is reported and forgotten, the next move
+    // is then simply searched without its help.
+    public void stop() {
+        if(running == null) return;
+        stopping = true;
+        try {
+            // The search clears its stop flag when it sets up a position,
+            // so keep stopping until the task is done.
+            while(true) {
+                search.stop();
+                try {
+                    running.get(1, TimeUnit.MILLISECONDS);
+                    break;
+                } catch(TimeoutException ex) {
+                    // Still searching.
+                }
+            }
+        } catch(ExecutionException ex) {
+            failed(ex);
+        } catch(InterruptedException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            running = null;
+        }
+    }
+
+    // Drop what a failed pondering left behind.
+    private void failed(ExecutionException ex) {
+        predicted = null;
+        answer = null;
+        System.err.println("Pondering failed: " + ex.getCause());
+    }
+
+    // Stop pondering and return the answer found for game if the
+    // opponent played the predicted reply, else null.
+    public SearchResult answerFor(GameState game) {
+        stop();
+        GameState position = predicted;
+        if(position == null) return null;
+        predicted = null;
+
+        SearchResult result = answer;
+        if(result != null && result.getDepth() > 0 && samePosition(position, game)) {
+            hits++;
+            return result;
+        }
+        misses++;
+        return null;
+    }
+
+    // Wait at most timeoutMillis for the current pondering to end on its
+    // own, with the answer searched to the end of the game. Returns false
+    // if it is still searching.
+    boolean awaitCompletion(long timeoutMillis) throws InterruptedException {
+        Future<?> current = running;
+        if(current == null) return true;
+        try {
+            current.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch(TimeoutException ex) {
+            return false;
+        } catch(ExecutionException ex) {
+            failed(ex);
+            running = null;
+            return true;
+        }
+    }
+
+    // Returns true if the last answer was searched as deep as it
+    // would go, rather than cut short by the opponent's move.
+    public boolean isAnswerComplete() {
+        return answerComplete;
+    }
+
+    private static boolean samePosition(GameState a, GameState b) {
+        if(a.getCellCount() != b.getCellCount() || a.toMove() != b.toMove()) return false;
+        for(int i = 0; i < a.getCellCount(); i++) {
+            if(a.get(i) != b.get(i)) return false;
+        }
+        return true;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    private synchronized ExecutorService thread() {
+        if(thread == null) {
+            thread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ponder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return thread;
+    }
+}
@@ -0,0 +1,72 @@
+package tictactow;
+
+/*
+ * SearchResult holds the move chosen by the AlphaBetaSearch together with
+ * the statistics of the search that produced it, so callers can report
+ * how the work scales with the board size.
+ */
+public class SearchResult {
+
+    private final int move;                 // Index of the chosen tile.
+    private final int score;                // Score of the move from the searching player's view.
+    private final int depth;                // Deepest fully completed iteration.
+    private final long nodes;               // Amount of positions visited.
+    private final long tableProbes;         // Amount of transposition table lookups.
+    private final long tableHits;           // Amount of lookups that found an entry.
+    private final long elapsedMillis;       // Wall clock time spent searching.
+
+    SearchResult(int move, int score, int depth, long nodes, long tableProbes, long tableHits, long elapsedMillis) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getMove() {
+        return move;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Returns the share of transposition table lookups that hit, in percent.
+    public double getTableHitRate() {
+        if(tableProbes == 0) return 0;
+        return 100.0 * tableHits / tableProbes;
+    }
+
+    // Returns true when the score is a forced win or loss.
+    public boolean isDecided() {
+        return Math.abs(score) >= AlphaBetaSearch.WIN_SCORE - AlphaBetaSearch.MAX_PLY;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("searched %d nodes to depth %d in %d ms (TT hit rate %.1f%%)",
+            nodes, depth, elapsedMillis, getTableHitRate());
+    }
+}
@@ -0,0 +1,60 @@
+package tictactow;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * SearchWorkers runs the helper threads of ParallelSearch and
+ * MonteCarloSearch. One pool serves every search engine in the process,
+ * so engines need no closing. It has at most one thread per core, however
+ * many engines search at once, and threads that sit idle for a minute
+ * exit on their own.
+ *
+ * With every thread busy, a helper waits in the queue. Its engine does
+ * not wait for it: a helper that has not started when the calling thread
+ * finished its own search is claimed and skipped, see Claim.
+ */
+final class SearchWorkers {
+
+    private static final ThreadPoolExecutor POOL = createPool(Runtime.getRuntime().availableProcessors());
+
+    private SearchWorkers() {
+    }
+
+    private static ThreadPoolExecutor createPool(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    static <T> Future<T> submit(Callable<T> task) {
+        return POOL.submit(task);
+    }
+
+    // Decides once whether a helper runs: either the helper starts
+    // first, or the engine claims it back before it started.
+    static final class Claim {
+
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        // Called by the helper as it starts. Returns false if it must not run.
+        boolean start() {
+            return taken.compareAndSet(false, true);
+        }
+
+        // Called by the engine once its own search is done. Returns true
+        // if the helper never started and never will.
+        boolean skip() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+}
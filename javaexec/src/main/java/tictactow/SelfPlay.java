@@ -0,0 +1,235 @@
+package tictactow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * SelfPlay plays batches of AI versus AI games on every core and reports
+ * games per second, win/draw/loss rates and move latency percentiles.
+ * It is used to regression test the strength and speed of the AIs.
+ *
+ * Usage: SelfPlay <size> <games> [x:o ...] [--win k] [--threads n] [--hard-time ms]
+ *      x and o are easy, medium, hard or mcts. Without matchups every
+ *      combination of easy, medium and hard is played. mcts gets the
+ *      hard time limit and one thread, the games already use every core.
+ */
+public class SelfPlay {
+
+    static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    // Create a fresh AI player from its difficulty name.
+    static AIPlayer createPlayer(String name, long hardTimeLimit) {
+        if(name.equals("easy")) return new EasyAI();
+        if(name.equals("medium")) return new MediumAI();
+        if(name.equals("hard")) return new HardAI(hardTimeLimit);
+        if(name.equals("mcts")) return new MonteCarloAI(hardTimeLimit, 0, 1);
+        throw new IllegalArgumentException("Unknown AI difficulty: " + name);
+    }
+
+    // Play games between xName (moving first) and oName on a board of
+    // the given size, spread over the given amount of threads.
+    public static Result play(int size, int games, String xName, String oName, int threads, long hardTimeLimit) {
+        return play(new GameEngine(size), games, xName, oName, threads, hardTimeLimit);
+    }
+
+    // Play games between xName (moving first) and oName under the given
+    // rules, spread over the given amount of threads.
+    public static Result play(GameEngine rules, int games, String xName, String oName, int threads, long hardTimeLimit) {
+        createPlayer(xName, hardTimeLimit);     // fail early on unknown names
+        createPlayer(oName, hardTimeLimit);
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(threads);
+        AtomicInteger nextGame = new AtomicInteger();
+        long start = System.nanoTime();
+
+        try {
+            // Every worker owns its players, so none of them
+            // are shared between threads.
+            List<Future<Worker>> workers = new ArrayList<>();
+            for(int i = 0; i < threads; i++) {
+                workers.add(threadPool.submit(() -> {
+                    Worker worker = new Worker(rules, createPlayer(xName, hardTimeLimit), createPlayer(oName, hardTimeLimit));
+                    while(nextGame.getAndIncrement() < games) worker.playGame();
+                    return worker;
+                }));
+            }
+
+            Result result = new Result(rules, xName, oName);
+            for(Future<Worker> worker : workers) result.add(worker.get());
+            result.elapsedNanos = System.nanoTime() - start;
+            return result;
+        } catch(InterruptedException | ExecutionException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            threadPool.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) {
+        if(args.length < 2) {
+            System.out.println("Usage: SelfPlay <size> <games> [x:o ...] [--win k] [--threads n] [--hard-time ms]");
+            return;
+        }
+
+        int size = Integer.parseInt(args[0]);
+        int games = Integer.parseInt(args[1]);
+        int winLength = size;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long hardTimeLimit = 1000;
+        List<String[]> matchups = new ArrayList<>();
+
+        for(int i = 2; i < args.length; i++) {
+            if(args[i].equals("--win")) winLength = Integer.parseInt(args[++i]);
+            else if(args[i].equals("--threads")) threads = Integer.parseInt(args[++i]);
+            else if(args[i].equals("--hard-time")) hardTimeLimit = Long.parseLong(args[++i]);
+            else matchups.add(args[i].split(":"));
+        }
+
+        // Without matchups play every combination.
+        if(matchups.isEmpty()) {
+            for(String x : DIFFICULTIES) {
+                for(String o : DIFFICULTIES) matchups.add(new String[] {x, o});
+            }
+        }
+
+        GameEngine rules = new GameEngine(size, winLength);
+        System.out.println("Playing " + games + " games per matchup on " + size + "x" + size + " with " + threads + " threads.");
+        for(String[] matchup : matchups) {
+            System.out.println(play(rules, games, matchup[0], matchup[1], threads, hardTimeLimit));
+        }
+    }
+
+    // Worker plays games on one thread and keeps its own counts.
+    private static class Worker {
+
+        private final GameEngine engine;
+        private final AIPlayer xPlayer;
+        private final AIPlayer oPlayer;
+        private final LatencyLog xLatency = new LatencyLog();
+        private final LatencyLog oLatency = new LatencyLog();
+        private int xWins, oWins, draws;
+
+        Worker(GameEngine rules, AIPlayer xPlayer, AIPlayer oPlayer) {
+            this.engine = rules;
+            this.xPlayer = xPlayer;
+            this.oPlayer = oPlayer;
+        }
+
+        void playGame() {
+            xPlayer.reset();
+            oPlayer.reset();
+            GameState game = engine.newGame();
+
+            while(!game.isOver()) {
+                boolean xTurn = game.toMove() == GameState.X;
+                long start = System.nanoTime();
+                int move = (xTurn ? xPlayer : oPlayer).chooseMove(game);
+                (xTurn ? xLatency : oLatency).add(System.nanoTime() - start);
+                game.apply(move);
+            }
+
+            if(game.status() == GameStatus.X_WON) xWins++;
+            else if(game.status() == GameStatus.O_WON) oWins++;
+            else draws++;
+        }
+    }
+
+    // LatencyLog is a growable list of move times in nanoseconds.
+    static class LatencyLog {
+
+        private long[] values = new long[1024];
+        private int count;
+
+        void add(long nanos) {
+            if(count == values.length) values = Arrays.copyOf(values, count*2);
+            values[count++] = nanos;
+        }
+
+        void addAll(LatencyLog other) {
+            for(int i = 0; i < other.count; i++) add(other.values[i]);
+        }
+
+        // Returns the given percentile (0-100) in nanoseconds.
+        // Sorts the log, so call it once all values are in.
+        long percentile(double percent) {
+            if(count == 0) return 0;
+            Arrays.sort(values, 0, count);
+            int index = (int) Math.ceil(percent / 100.0 * count) - 1;
+            return values[Math.max(0, Math.min(count-1, index))];
+        }
+
+        int size() {
+            return count;
+        }
+    }
+
+    // Result holds the merged counts of one matchup.
+    public static class Result {
+
+        private final int size;
+        private final int winLength;
+        private final String xName;
+        private final String oName;
+        private final LatencyLog xLatency = new LatencyLog();
+        private final LatencyLog oLatency = new LatencyLog();
+        private int xWins, oWins, draws;
+        private long elapsedNanos;
+
+        Result(GameEngine rules, String xName, String oName) {
+            this.size = rules.getSize();
+            this.winLength = rules.getWinLength();
+            this.xName = xName;
+            this.oName = oName;
+        }
+
+        private void add(Worker worker) {
+            xWins += worker.xWins;
+            oWins += worker.oWins;
+            draws += worker.draws;
+            xLatency.addAll(worker.xLatency);
+            oLatency.addAll(worker.oLatency);
+        }
+
+        public int getGames() {
+            return xWins + oWins + draws;
+        }
+
+        public int getXWins() {
+            return xWins;
+        }
+
+        public int getOWins() {
+            return oWins;
+        }
+
+        public int getDraws() {
+            return draws;
+        }
+
+        public double getGamesPerSecond() {
+            return getGames() / (elapsedNanos / 1e9);
+        }
+
+        private static String latency(String name, LatencyLog log) {
+            return String.format("    %s move latency over %d moves: p50 %d us, p90 %d us, p99 %d us, max %d us",
+                name, log.size(), log.percentile(50) / 1000, log.percentile(90) / 1000,
+                log.percentile(99) / 1000, log.percentile(100) / 1000);
+        }
+
+        @Override
+        public String toString() {
+            double games = Math.max(1, getGames());
+            String board = size + "x" + size + (winLength < size ? " " + winLength + " in a row" : "");
+            return String.format("%s %s (X) vs %s (O): %d games in %.2f s (%.1f games/s), X won %.1f%%, draw %.1f%%, O won %.1f%%%n%s%n%s",
+                board, xName, oName, getGames(), elapsedNanos / 1e9, getGamesPerSecond(),
+                100 * xWins / games, 100 * draws / games, 100 * oWins / games,
+                latency(xName + " (X)", xLatency), latency(oName + " (O)", oLatency));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package tictactow;
+
+/*
+ * SmallBitboard stores boards of up to 64 tiles in one long per player.
+ * The line masks only depend on the size and win length, so they are
+ * built once by BoardLines and shared by every board.
+ */
+public class SmallBitboard extends Bitboard {
+
+    private final long[] lineMasks;     // Mask of every line, shared by boards with the same lines.
+    private long xBits;                 // Tiles owned by X.
+    private long oBits;                 // Tiles owned by O.
+
+    SmallBitboard(BoardLines lines) {
+        super(lines);
+        if(cellCount > 64)
+            throw new IllegalArgumentException("SmallBitboard only holds boards up to 8x8.");
+        lineMasks = lines.singleWordMasks();
+    }
+
+    @Override
+    public int get(int index) {
+        long bit = 1L << index;
+        if((xBits & bit) != 0) return X;
+        if((oBits & bit) != 0) return O;
+        return EMPTY;
+    }
+
+    @Override
+    public void set(int index, int player) {
+        long bit = 1L << index;
+        if(player == X) { xBits |= bit; oBits &= ~bit; }
+        else if(player == O) { oBits |= bit; xBits &= ~bit; }
+        else throw new IllegalArgumentException("Only X or O pieces can be placed.");
+    }
+
+    @Override
+    public void remove(int index) {
+        long bit = ~(1L << index);
+        xBits &= bit;
+        oBits &= bit;
+    }
+
+    @Override
+    public void reset() {
+        xBits = 0;
+        oBits = 0;
+    }
+
+    @Override
+    public int pieceCount() {
+        return Long.bitCount(xBits | oBits);
+    }
+
+    @Override
+    public boolean ownsLine(int player, int line) {
+        long bits = player == X ? xBits : oBits;
+        long mask = lineMasks[line];
+        return (bits & mask) == mask;
+    }
+
+    @Override
+    public boolean hasLine(int player) {
+        long bits = player == X ? xBits : oBits;
+        for(long mask : lineMasks) {
+            if((bits & mask) == mask) return true;
+        }
+        return false;
+    }
+
+    // Returns the raw bits owned by player.
+    public long bits(int player) {
+        return player == X ? xBits : oBits;
+    }
+}
@@ -0,0 +1,81 @@
+package tictactow;
+
+/*
+ * SymmetricHash keeps the Zobrist hash of a board under all 8 symmetries
+ * up to date as pieces are placed and removed. The smallest of them is
+ * the canonical key, shared by every rotation and reflection of the board,
+ * so a cache keyed by it stores one entry per equivalence class.
+ *
+ * The symmetry that produced the canonical key is remembered, which lets
+ * callers store moves in the canonical orientation and map them back.
+ */
+public final class SymmetricHash {
+
+    private final BoardSymmetry symmetry;
+    private final int cellCount;            // The amount of tiles on the board.
+    private final long[][] keys;            // Zobrist keys of every symmetry.
+    private final long[] hashes;            // Current hash under every symmetry.
+    private int canonicalSymmetry;          // Symmetry of the last canonicalKey().
+
+    public SymmetricHash(int size) {
+        this(BoardSymmetry.forSize(size));
+    }
+
+    public SymmetricHash(BoardSymmetry symmetry) {
+        this.symmetry = symmetry;
+        this.cellCount = symmetry.getSize()*symmetry.getSize();
+        this.keys = new long[BoardSymmetry.COUNT][];
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) keys[s] = symmetry.keys(s);
+        this.hashes = new long[BoardSymmetry.COUNT];
+    }
+
+    public BoardSymmetry getSymmetry() {
+        return symmetry;
+    }
+
+    // Add or remove a piece, XOR makes both the same operation.
+    public void toggle(int cell, int player) {
+        int index = player*cellCount + cell;
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) hashes[s] ^= keys[s][index];
+    }
+
+    // Returns the hash of the board as it is, without symmetry.
+    public long key() {
+        return hashes[BoardSymmetry.IDENTITY];
+    }
+
+    // Returns the smallest hash over every symmetry and remembers
+    // the symmetry it came from.
+    public long canonicalKey() {
+        long best = hashes[0];
+        int bestSymmetry = 0;
+        for(int s = 1; s < BoardSymmetry.COUNT; s++) {
+            if(Long.compareUnsigned(hashes[s], best) < 0) {
+                best = hashes[s];
+                bestSymmetry = s;
+            }
+        }
+        canonicalSymmetry = bestSymmetry;
+        return best;
+    }
+
+    // Returns the symmetry found by the last call to canonicalKey().
+    public int canonicalSymmetry() {
+        return canonicalSymmetry;
+    }
+
+    // Map a tile of the board into the canonical orientation.
+    public int toCanonical(int cell) {
+        return symmetry.transform(canonicalSymmetry, cell);
+    }
+
+    // Map a tile of the canonical orientation back onto the board.
+    public int fromCanonical(int cell) {
+        return symmetry.inverse(canonicalSymmetry, cell);
+    }
+
+    // Forget every piece.
+    public void reset() {
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) hashes[s] = 0;
+    }
+}
@@ -0,0 +1,260 @@
+package tictactow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Tablebase holds the perfect play result of every reachable 3x3 position.
+ * build() solves the game in memory, which takes a few milliseconds.
+ * generate() writes the same table to a small binary file and open() maps
+ * such a file into memory, so looking up a move costs one array read and
+ * loading it costs no more than mapping a 39 KB file.
+ *
+ * Positions are indexed by the base 3 code of their canonical board, the
+ * smallest code over the 8 rotations and reflections, so only one entry per
+ * equivalence class is filled. The side to move follows from the piece
+ * counts, positions reached through passed turns are not covered.
+ *
+ * File layout: magic, board size, entry count, then one big endian short
+ * per code. Entries pack bits 0-3 move+1 in the canonical orientation,
+ * bits 4-5 the result for the player to move and bits 8-11 the amount of
+ * moves left until the game ends with perfect play. 0 means not covered.
+ *
+ * Usage: Tablebase [file]
+ */
+public final class Tablebase {
+
+    static final int SIZE = 3;                  // Board size the tablebase covers.
+    static final int WIN = 1;                   // The player to move wins.
+    static final int DRAW = 2;
+    static final int LOSS = 3;                  // The player to move loses.
+
+    static final String PATH_PROPERTY = "tictactow.tablebase";   // File to map instead of building in memory.
+
+    private static final int MAGIC = 0x54544231;                // "TTB1"
+    private static final int CELLS = SIZE*SIZE;
+    private static final int ENTRIES = 19683;                   // 3^9 board codes.
+    private static final int HEADER = 12;                       // Bytes before the first entry.
+    private static final int[] POWERS = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+
+    private static volatile Tablebase shared;   // Default tablebase, loaded on first use.
+
+    private final ByteBuffer entries;           // Header and entries, read with absolute gets only.
+
+    private Tablebase(ByteBuffer entries) {
+        this.entries = entries;
+    }
+
+    // Map a tablebase file into memory.
+    public static Tablebase open(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() != HEADER + 2L*ENTRIES)
+                throw new IOException(file + " is not a 3x3 tablebase.");
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != SIZE || buffer.getInt(8) != ENTRIES)
+                throw new IOException(file + " is not a 3x3 tablebase.");
+            return new Tablebase(buffer);
+        }
+    }
+
+    // Build a tablebase in memory, without touching the disk.
+    public static Tablebase build() {
+        return new Tablebase(solveAll());
+    }
+
+    // Returns the default tablebase, loaded on first use. It is built in
+    // memory unless the tictactow.tablebase property names a file, which
+    // is then generated if it does not exist yet and mapped. Returns null
+    // if that file can not be used, callers then fall back to searching.
+    public static Tablebase shared() {
+        Tablebase result = shared;
+        if(result == null) {
+            synchronized(Tablebase.class) {
+                result = shared;
+                if(result == null) {
+                    String path = System.getProperty(PATH_PROPERTY);
+                    if(path == null) {
+                        result = shared = build();
+                    }
+                    else {
+                        Path file = Paths.get(path);
+                        try {
+                            if(!Files.exists(file)) generate(file);
+                            result = shared = open(file);
+                        } catch(IOException ex) {
+                            return null;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // The file named by the tictactow.tablebase property, or one in the
+    // home directory of the user, where no other user can replace it.
+    static Path defaultPath() {
+        String path = System.getProperty(PATH_PROPERTY);
+        if(path != null) return Paths.get(path);
+        return Paths.get(System.getProperty("user.home"), ".tictactow", "3x3.tablebase");
+    }
+
+    // Returns true if the tablebase knows the rules of game.
+    public static boolean covers(GameState game) {
+        return game.getSize() == SIZE && game.getWinLength() == SIZE;
+    }
+
+    // Returns the packed entry of a game, or 0 if it is not covered.
+    public long lookup(GameState game) {
+        if(!covers(game)) return 0;
+
+        // With X moving first the counts decide whose turn it is.
+        int pieces = game.getPieceCount();
+        if(game.toMove() != (pieces % 2 == 0 ? GameState.X : GameState.O)) return 0;
+
+        int[] board = new int[CELLS];
+        for(int i = 0; i < CELLS; i++) board[i] = game.get(i);
+        int symmetry = canonicalSymmetry(board);
+        int entry = entries.getShort(HEADER + 2*code(board, symmetry)) & 0xFFFF;
+        if(entry == 0) return 0;
+
+        // Turn the move back into the orientation of the game.
+        int move = (entry & 0xF) - 1;
+        if(move >= 0) move = BoardSymmetry.forSize(SIZE).inverse(symmetry, move);
+        return (entry & ~0xF) | (move + 1);
+    }
+
+    // Returns the best tile for the player to move in game,
+    // or -1 if the game is over or not covered.
+    public int bestMove(GameState game) {
+        return move(lookup(game));
+    }
+
+    static int move(long entry) {
+        return (int) (entry & 0xF) - 1;
+    }
+
+    static int result(long entry) {
+        return (int) (entry >>> 4) & 3;
+    }
+
+    static int distance(long entry) {
+        return (int) (entry >>> 8) & 0xF;
+    }
+
+    // Solve every position reachable from the empty board and write the
+    // tablebase to file. The file is replaced atomically, so a reader
+    // never maps a half written table.
+    public static void generate(Path file) throws IOException {
+        ByteBuffer table = solveAll();
+
+        Path directory = file.toAbsolutePath().getParent();
+        if(directory != null) Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "tablebase", ".tmp");
+        try {
+            try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while(table.hasRemaining()) channel.write(table);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Solve every position reachable from the empty board.
+    // Returns the header and entries in the layout of the file.
+    private static ByteBuffer solveAll() {
+        short[] table = new short[ENTRIES];
+        solve(new int[CELLS], GameState.X, new WinTracker(SIZE), table);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + 2*ENTRIES);
+        buffer.putInt(MAGIC).putInt(SIZE).putInt(ENTRIES);
+        for(short entry : table) buffer.putShort(entry);
+        buffer.flip();
+        return buffer;
+    }
+
+    // Negamax over every reachable position, memoized in table by the
+    // canonical code. Returns the packed entry of the position.
+    private static int solve(int[] board, int player, WinTracker tracker, short[] table) {
+        int symmetry = canonicalSymmetry(board);
+        int code = code(board, symmetry);
+        if(table[code] != 0) return table[code];
+
+        int best = 0;
+        int bestResult = 0, bestDistance = 0, bestMove = -1;
+        for(int move = 0; move < CELLS; move++) {
+            if(board[move] != GameState.EMPTY) continue;
+
+            // Score the move for player: fast wins first, slow losses last.
+            int result, distance;
+            board[move] = player;
+            if(tracker.place(move, player)) {
+                result = WIN;
+                distance = 1;
+            }
+            else {
+                int reply = solve(board, GameState.opponent(player), tracker, table);
+                result = reply >>> 4 & 3;
+                if(result == WIN) result = LOSS;
+                else if(result == LOSS) result = WIN;
+                distance = (reply >>> 8 & 0xF) + 1;
+            }
+            board[move] = GameState.EMPTY;
+            tracker.undo();
+
+            int score = result == WIN ? 20 - distance : result == LOSS ? distance - 20 : 0;
+            if(bestMove == -1 || score > best) {
+                best = score;
+                bestResult = result;
+                bestDistance = distance;
+                bestMove = move;
+            }
+        }
+
+        // A full board is a draw. Won positions are never stored,
+        // the game is over before anyone looks them up.
+        if(bestMove == -1) bestResult = DRAW;
+        int canonicalMove = bestMove == -1 ? -1 : BoardSymmetry.forSize(SIZE).transform(symmetry, bestMove);
+        int entry = (bestDistance << 8) | (bestResult << 4) | (canonicalMove + 1);
+        table[code] = (short) entry;
+        return entry;
+    }
+
+    // Returns the base 3 code of board seen through a symmetry.
+    private static int code(int[] board, int symmetry) {
+        BoardSymmetry symmetries = BoardSymmetry.forSize(SIZE);
+        int code = 0;
+        for(int i = 0; i < CELLS; i++) {
+            if(board[i] != GameState.EMPTY) code += board[i] * POWERS[symmetries.transform(symmetry, i)];
+        }
+        return code;
+    }
+
+    // Returns the symmetry giving the smallest code of board.
+    private static int canonicalSymmetry(int[] board) {
+        int best = 0;
+        int bestCode = code(board, 0);
+        for(int s = 1; s < BoardSymmetry.COUNT; s++) {
+            int code = code(board, s);
+            if(code < bestCode) {
+                best = s;
+                bestCode = code;
+            }
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = args.length > 0 ? Paths.get(args[0]) : defaultPath();
+        long start = System.nanoTime();
+        generate(file);
+        System.out.println("Wrote the 3x3 tablebase to " + file + " in " + (System.nanoTime() - start) / 1000000L + " ms.");
+    }
+}
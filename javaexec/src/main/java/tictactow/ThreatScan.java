@@ -0,0 +1,83 @@
+package tictactow;
+
+/*
+ * ThreatScan lists the tiles where either player would win with their next
+ * move, on rows, columns and diagonals alike. A player must take their own
+ * winning tile, or else block the tiles on which the opponent would win.
+ *
+ * The scan is one pass over the line counts GameState keeps up to date
+ * with every move. Only a line holding winLength-1 pieces of one player
+ * and none of the other is a threat, and only for those lines the tiles
+ * are read to find the empty one, so the cost grows with the amount of
+ * lines and not with the amount of tiles on them.
+ */
+public final class ThreatScan {
+
+    private final int[][] winningMoves;     // Tiles that win on the next move, indexed by player.
+
+    private ThreatScan(int[][] winningMoves) {
+        this.winningMoves = winningMoves;
+    }
+
+    // Find every win-in-one tile of both players.
+    public static ThreatScan of(GameState game) {
+        BoardLines lines = game.getLines();
+        int threat = lines.getLineLength() - 1;
+        int[][] found = new int[3][];
+        int[] counts = new int[3];
+        boolean[][] marked = new boolean[3][];
+
+        if(!game.isOver()) {
+            for(int line = 0; line < lines.getLineCount(); line++) {
+                int x = game.countOnLine(GameState.X, line);
+                int o = game.countOnLine(GameState.O, line);
+                int player;
+                if(x == threat && o == 0) player = GameState.X;
+                else if(o == threat && x == 0) player = GameState.O;
+                else continue;
+
+                if(marked[player] == null) {
+                    marked[player] = new boolean[game.getCellCount()];
+                    found[player] = new int[game.getCellCount()];
+                }
+                for(int cell : lines.cellsOf(line)) {
+                    if(game.isEmpty(cell) && !marked[player][cell]) {
+                        marked[player][cell] = true;
+                        found[player][counts[player]++] = cell;
+                    }
+                }
+            }
+        }
+
+        int[][] winningMoves = new int[3][];
+        for(int player = GameState.X; player <= GameState.O; player++) {
+            winningMoves[player] = new int[counts[player]];
+            if(counts[player] > 0) System.arraycopy(found[player], 0, winningMoves[player], 0, counts[player]);
+        }
+        return new ThreatScan(winningMoves);
+    }
+
+    // Returns the tiles on which player wins with their next move.
+    public int[] winningMoves(int player) {
+        return winningMoves[player].clone();
+    }
+
+    // Returns the tiles player has to take to stop the opponent from winning.
+    public int[] blockingMoves(int player) {
+        return winningMoves(GameState.opponent(player));
+    }
+
+    public boolean hasWinningMove(int player) {
+        return winningMoves[player].length > 0;
+    }
+
+    // Returns a winning tile of player, or -1.
+    public int firstWinningMove(int player) {
+        return winningMoves[player].length > 0 ? winningMoves[player][0] : -1;
+    }
+
+    // Returns a tile player has to block, or -1.
+    public int firstBlockingMove(int player) {
+        return firstWinningMove(GameState.opponent(player));
+    }
+}
@@ -1,8 +1,6 @@
 package tictactow;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 
 /**
  * Project: (Single Dev): Tic-Tac-Toe with AI Opponent
@@ -22,13 +20,13 @@ import java.io.InputStreamReader;
  */
 public class Tictactoe 
 {
-    static private BoardPiece[] boardMap;                       // An array that represents the board layout of tic-tac-toe
-    static private BufferedReader reader = new 
-            BufferedReader(new InputStreamReader(System.in));   // Console Input Reader
-    static private BoardPiece currentPlayer = BoardPiece.O;     // keeps track of the current player's to manage turns.
+    static final int TURN_TIME_LIMIT = 10;                      // Seconds a player has to pick a position, shared with MatchServer.
+    static private GameState game;                              // The game being played, holds the board layout of tic-tac-toe
+    static private BoardPiece currentPlayer = BoardPiece.X;     // The player of the current turn, follows game.toMove().
     static private int size;                                    // The length and width of the tic-tac-toe board.
 
     // This enum represents tic-tac-toe pieces or the lack of it.
+    // The ordinals match the GameState piece values.
     enum BoardPiece {
         EMPTY,
         X,
@@ -37,36 +35,12 @@ public class Tictactoe
     
     // Returns the amount of slots in the board.
     public static int getBoardPieceAmount() {
-        return boardMap.length;
+        return game.getCellCount();
     }
 
     // Used for printing the board to the terminal.
     static void printBoard() {
-        
-        System.out.println();
-
-        // For every tile in the board
-        for(int i = 0; i < boardMap.length; i++) {
-
-            // Gather size and specific element.
-            BoardPiece element = boardMap[i];
-
-            // Print the specific piece.
-            if(element == BoardPiece.EMPTY) System.out.print(" ");
-            else if(element == BoardPiece.X) System.out.print("X");
-            else System.out.print("O");
-
-            // if the tile is at the end of the board
-            // create a separator line.
-            if((i+1) % size == 0) {
-                System.out.println();
-                String separator = "-";
-                String line = separator.repeat(size + size-1);
-                System.out.println(line);
-            }
-            else System.out.print("|");
-        }
-        System.out.println();
+        BoardRenderer.console().render(game);
     }
 
     // Initialize the board size using user input.
@@ -80,7 +54,7 @@ public class Tictactoe
 
             // Catch string input given by the user.
             try {
-                length = Integer.parseInt(reader.readLine());
+                length = Integer.parseInt(ConsoleInput.readLine());
                 if(length < 3) {
                     System.out.println("The board size must be 3x3 minimum. Please try again.");
                     continue;
@@ -95,12 +69,36 @@ public class Tictactoe
 
         }
 
-        boardMap = new BoardPiece[length*length];
-        size = length;
-        for(int i = 0; i < boardMap.length; i++) {
-            boardMap[i] = BoardPiece.EMPTY;
+        // Start a new game on an empty board of the given size.
+        initializeBoardSize(length, readWinLength(length));
+    }
+
+    // Ask how many pieces in a row are needed to win on a board
+    // of the given length. An empty answer keeps the full line.
+    static int readWinLength(int length) {
+        if(length == 3) return 3;
+
+        System.out.println("How many pieces in a row are needed to win?");
+        System.out.println("Press enter for " + length + ", or type a number from 3 to " + length + ".");
+        while(true) {
+            System.out.print("> ");
+
+            // Catch string input given by the user.
+            try {
+                String line = ConsoleInput.readLine();
+                if(line == null || line.trim().isEmpty()) return length;
+                int winLength = Integer.parseInt(line.trim());
+                if(winLength < 3 || winLength > length) {
+                    System.out.println("The win length must be between 3 and " + length + ". Please try again.");
+                    continue;
+                }
+                return winLength;
+            }
+            // Let the user know that only numbers are allowed.
+            catch(IOException | NumberFormatException ex) {
+                System.out.println("Invalid Input. Please enter a number.");
+            }
         }
-        System.out.println("Board Size is set!");
     }
 
     // Initialize the board size using parameter size.
@@ -112,102 +110,34 @@ public class Tictactoe
             return;
         }
 
-        // Initialize the BoardPiece array and set all elements as empty.
-        boardMap = new BoardPiece[length*length];
-        size = length;
-        for(int i = 0; i < boardMap.length; i++) {
-            boardMap[i] = BoardPiece.EMPTY;
-        }
-        System.out.println("Board Size is set!");
-    }
-
-    // Checks if a player has won following a piece placement.
-    static boolean checkIfPlayerWon() {
-        
-        // We need to check by row. Ex: assuming 3x3 we send index 0,3,6
-        // so that checkValidRow() checks every piece on that row.
-        for(int i = 0; i < size; i++) {
-            if(checkValidRow(i*size))
-                return true;
-        }
-
-        // We need to check by column. We check by reading
-        // top down so we send the index of every piece on
-        // the top row. Ex: assuming 3x3 .. send 0 1 2
-        for(int i = 0; i < size; i++) {
-            if(checkValidColumn(i))
-                return true;
-        }
-
-        // We need to check by diagonal. We use checkLeftDiagonal()
-        // and checkRightDiagonal() to confirm if there was a victory
-        // via diagonal.
-        if(checkLeftDiagonal() || checkRightDiagonal())
-            return true;
-
-        return false;
-    }
-
-    // Check if a row is filled/valid for victory.
-    static boolean checkValidRow(int row) {
-
-        BoardPiece startingPiece = boardMap[row];
-        if(startingPiece == BoardPiece.EMPTY) return false;
-
-        // if any of the row pieces do not match, no victory
-        for(int i = row+1; i < row+size; i++) {
-            if(boardMap[i] != startingPiece) return false;
-        }
-
-        return true;
+        initializeBoardSize(length, length);
     }
 
-    // Check if a column is filled/valid for victory.
-    static boolean checkValidColumn(int column) {
-        
-        BoardPiece startingPiece = boardMap[column];
-        if(startingPiece == BoardPiece.EMPTY) return false;
+    // Initialize the board size and the amount of pieces
+    // in a row needed to win.
+    static void initializeBoardSize(int length, int winLength) {
 
-        // if any of the column pieces do not match, no victory
-        for(int i = column+size; i < boardMap.length; i=i+size) {
-            if(boardMap[i] != startingPiece) return false;
+        // The minimum board size is a 3x3
+        if(length < 3) {
+            System.out.println("Board size must be a minimum of 3x3.");
+            return;
         }
-
-        return true;
-    }
-
-    // Check if the diagonal starting from the top left going
-    // to bottom right has been filled by the same piece.
-    static boolean checkLeftDiagonal() {
-
-        BoardPiece leftDiag = boardMap[0];
-        if(leftDiag == BoardPiece.EMPTY) return false;
-
-        // if any of the diagonal pieces do not match, no victory
-        if(leftDiag != BoardPiece.EMPTY) {
-            for(int i = size+1; i < boardMap.length; i=i+size+1) {
-                if(boardMap[i] != leftDiag) return false;
-            }
+        if(winLength < 3 || winLength > length) {
+            System.out.println("Win length must be between 3 and the board size.");
+            return;
         }
 
-        return true;
+        // Start a new game on an empty board of the given size.
+        game = new GameEngine(length, winLength).newGame();
+        size = length;
+        System.out.println("Board Size is set!");
     }
 
-    // Check if the diagonal starting from the top right going
-    // to bottom left has been filled by the same piece.
-    static boolean checkRightDiagonal() {
-
-        BoardPiece rightDiag = boardMap[size-1];
-        if(rightDiag == BoardPiece.EMPTY) return false;
-
-        // if any of the diagonal pieces do not match, no victory
-        if(rightDiag != BoardPiece.EMPTY) {
-            for(int i = (size-1)*2; i < boardMap.length-(size-1); i=i+(size-1)) {
-                if(boardMap[i] != rightDiag) return false;
-            }
-        }
-
-        return true;
+    // Checks if a player has won following a piece placement. The win
+    // was already detected while the piece was placed, from the lines
+    // through it, so this only reads the status of the game.
+    static boolean checkIfPlayerWon() {
+        return game.status().hasWinner();
     }
 
     // Insert a proper piece (X or O) into the board.
@@ -219,27 +149,35 @@ public class Tictactoe
             return;
         }
 
-        boardMap[index] = piece;
+        // Do not allow the placement of pieces on a filled tile
+        // or after the game has ended.
+        if(!game.isEmpty(index)) {
+            System.out.println("The position already has an X or O.");
+            return;
+        }
+        if(game.isOver()) {
+            System.out.println("The game is already over.");
+            return;
+        }
+
+        // Placing detects a win from the lines through the tile, the
+        // victory check recorded in EngineMetrics.
+        long start = System.nanoTime();
+        game.apply(index, piece.ordinal());
+        EngineMetrics.shared().recordVictoryCheck(System.nanoTime() - start);
     }
 
     // Check if specified position is empty or not.
     static boolean validPosition(int index) {
-        if(boardMap[index] != BoardPiece.EMPTY)
-            return false;
-        else
-            return true;
+        return game.isEmpty(index);
     }
 
     // Check if the board is full of valid pieces (X or O).
     static boolean boardIsFull() {
         
-        // for every tile, if one of them is empty,
-        // the board is not full.
-        for(BoardPiece element: boardMap) {
-            if(element == BoardPiece.EMPTY) return false;
-        }
-
-        return true;
+        // the board is full once the amount of pieces
+        // matches the amount of tiles.
+        return game.getPieceCount() == game.getCellCount();
     }
 
     // Gather a position from the user and check if its a valid position
@@ -247,35 +185,32 @@ public class Tictactoe
     // for another position.
     static void gatherPlayerPlacement() {
 
-        // Swap turns!
-        if(currentPlayer == BoardPiece.X) currentPlayer = BoardPiece.O;
-        else currentPlayer = BoardPiece.X;
+        // The game knows whose turn it is, also after a timed out
+        // turn or when a new game starts.
+        currentPlayer = game.toMove() == GameState.X ? BoardPiece.X : BoardPiece.O;
 
         int index = -1;         // index of the tile which will be filled
         char playerToken;       // the current players token
-        int timeLimit = 10;     // the amount of time the user has to pick a choice.
+        int timeLimit = TURN_TIME_LIMIT;    // the amount of time the user has to pick a choice.
         
         if(currentPlayer == BoardPiece.X) playerToken = 'X';
         else playerToken = 'O';
         
         System.out.println("Player " + playerToken + "'s turn. Where would you like to place your piece?  You have " + timeLimit + " seconds! (Type 1, 2, 3, etc.)");
 
-        // Call alternate threads to handle input and timer at the same time.
-        // Let the main thread sleep until the alternates are completed with
-        // their task.
+        // Wait for the player's input or the end of the time limit,
+        // whichever happens first.
         InputTimer timedReader = new InputTimer(timeLimit);
-        while(timedReader.getPosition() == -1) {
-            try {
-                Thread.sleep(16);
-            } catch(InterruptedException ex) {
-                throw new RuntimeException(ex);
-            }
-        }
+        index = timedReader.awaitPosition();
 
-        index = timedReader.getPosition();
-        if(index == -2) return;
+        if(index == InputTimer.TIMED_OUT) {
+            game.pass();
+            GameLog.move(GameRecord.PASS, timedReader.elapsedMillis());
+            return;
+        }
 
         insertPiece(index, currentPlayer);
+        GameLog.move(index, timedReader.elapsedMillis());
 
     }
 
@@ -290,6 +225,7 @@ public class Tictactoe
         
         // initialize board size
         initializeBoardSize();
+        GameLog.begin(game, GameRecord.Player.HUMAN, GameRecord.Player.HUMAN);
 
         // update with visual representation.
         printBoard();
@@ -312,6 +248,7 @@ public class Tictactoe
                 else playerToken = 'O';
                 
                 System.out.println(playerToken + " player has won!");
+                GameLog.end(game.status());
                 try {Thread.sleep(1000);} // slow down terminal output for a second
                 catch(InterruptedException ex) {throw new RuntimeException(ex);}
                 System.out.println("Closing Multiplayer Tic-Tac-Toe...");
@@ -323,6 +260,7 @@ public class Tictactoe
         try {Thread.sleep(1000);}
         catch(InterruptedException ex) {throw new RuntimeException(ex);}
         System.out.println("It's a draw!");
+        GameLog.end(game.status());
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package tictactow;
+
+import java.util.Arrays;
+
+/*
+ * TranspositionTable caches the results of previously searched positions
+ * keyed by their Zobrist hash. Positions reached through different move
+ * orders share an entry, which keeps the alpha-beta search from repeating
+ * the same work. Entries are packed into a single long next to their key.
+ *
+ * The table can be shared by the threads of a ParallelSearch without any
+ * locks. A slot stores the key XORed with the entry, so an entry is only
+ * accepted when both longs were written by the same store; a slot read
+ * halfway through another thread's store is simply a miss. Lookups are
+ * counted by the searches, not the table, so threads never write to a
+ * shared counter.
+ */
+public class TranspositionTable {
+
+    static final int EXACT = 0;                 // Score is the exact value of the position.
+    static final int LOWER = 1;                 // Score is a lower bound (search failed high).
+    static final int UPPER = 2;                 // Score is an upper bound (search failed low).
+
+    private final long[] keys;                  // Zobrist key XOR entry stored in each slot.
+    private final long[] entries;               // Packed score, depth, bound flag and best move.
+    private final int mask;                     // Slot count - 1, used instead of a modulo.
+
+    // Create a table with at least the given amount of slots.
+    // The slot count is rounded up to a power of two.
+    TranspositionTable(int minimumSlots) {
+        int slots = Integer.highestOneBit(Math.max(minimumSlots, 2) - 1) << 1;
+        keys = new long[slots];
+        entries = new long[slots];
+        mask = slots - 1;
+    }
+
+    // Pack a result into the layout used by entries[].
+    // bits 0-15 move+1, 16-17 flag, 18-27 depth, 32-63 score.
+    static long pack(int score, int depth, int flag, int move) {
+        return ((long) score << 32)
+            | ((long) Math.min(depth, 1023) << 18)
+            | ((long) flag << 16)
+            | (move + 1);
+    }
+
+    static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> 18) & 1023;
+    }
+
+    static int flag(long entry) {
+        return (int) (entry >>> 16) & 3;
+    }
+
+    static int move(long entry) {
+        return (int) (entry & 0xFFFF) - 1;
+    }
+
+    // Look up a position. Returns 0 when the key is not present.
+    // A packed depth 0 draw without a move is also 0, which only
+    // costs a re-search of that leaf.
+    long probe(long key) {
+        int slot = (int) key & mask;
+        long entry = entries[slot];
+        if((keys[slot] ^ entry) == key) return entry;
+        return 0;
+    }
+
+    // Store a result. A slot is replaced when it holds a different
+    // position or a result from a shallower search.
+    void store(long key, int score, int depth, int flag, int move) {
+        int slot = (int) key & mask;
+        long old = entries[slot];
+        if((keys[slot] ^ old) != key || depth >= depth(old)) {
+            long entry = pack(score, depth, flag, move);
+            entries[slot] = entry;
+            keys[slot] = key ^ entry;
+        }
+    }
+
+    // Remove every stored entry.
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+    }
+}
@@ -0,0 +1,113 @@
+package tictactow;
+
+import java.util.Arrays;
+
+/*
+ * WinTracker keeps a count of X and O pieces on every line of the board,
+ * where a line is every window of win length tiles (see BoardLines).
+ * Placing a piece only updates the lines through that tile, so asking
+ * whether the move won is O(lines through a tile) instead of a scan of
+ * the whole board. Every placement is pushed on an undo stack, which
+ * lets a search engine make and unmake moves.
+ *
+ * Pieces are represented by integers: 0 is empty, 1 is X and 2 is O.
+ */
+public class WinTracker {
+
+    private final BoardLines lines;         // Geometry of the board.
+    private final int lineLength;           // Amount of pieces on a line needed to win.
+    private final int[][] lineCounts;       // Pieces per line, indexed by player then line.
+    private final int[] moves;              // Undo stack, every entry is cell << 3 | won << 2 | player.
+    private int moveCount;                  // Amount of entries on the undo stack.
+    private int completedLines;             // Amount of lines owned completely by one player.
+
+    public WinTracker(int size) {
+        this(BoardLines.forSize(size));
+    }
+
+    public WinTracker(int size, int winLength) {
+        this(BoardLines.forSize(size, winLength));
+    }
+
+    public WinTracker(BoardLines lines) {
+        this.lines = lines;
+        this.lineLength = lines.getLineLength();
+        this.lineCounts = new int[3][lines.getLineCount()];
+        int cellCount = lines.getSize()*lines.getSize();
+        this.moves = new int[cellCount];
+    }
+
+    public BoardLines getLines() {
+        return lines;
+    }
+
+    // Record a piece placed by player on an empty tile.
+    // Returns true if that move completed a line.
+    public boolean place(int cell, int player) {
+        boolean won = false;
+        int[] counts = lineCounts[player];
+        for(int line : lines.linesThrough(cell)) {
+            if(++counts[line] == lineLength) {
+                won = true;
+                completedLines++;
+            }
+        }
+        moves[moveCount++] = (cell << 3) | (won ? 4 : 0) | player;
+        return won;
+    }
+
+    // Take back the last placement. Returns the tile it was on.
+    public int undo() {
+        int entry = moves[--moveCount];
+        int cell = entry >>> 3;
+        int[] counts = lineCounts[entry & 3];
+        for(int line : lines.linesThrough(cell)) {
+            if(counts[line]-- == lineLength) completedLines--;
+        }
+        return cell;
+    }
+
+    // Take back the placement on a tile, wherever it is on the
+    // undo stack. Used when a piece gets replaced outside of search.
+    public void remove(int cell) {
+        for(int i = moveCount-1; i >= 0; i--) {
+            int entry = moves[i];
+            if(entry >>> 3 != cell) continue;
+
+            int[] counts = lineCounts[entry & 3];
+            for(int line : lines.linesThrough(cell)) {
+                if(counts[line]-- == lineLength) completedLines--;
+            }
+            System.arraycopy(moves, i+1, moves, i, moveCount-1-i);
+            moveCount--;
+            return;
+        }
+    }
+
+    // Returns true if the last placement completed a line.
+    public boolean lastMoveWon() {
+        return moveCount > 0 && (moves[moveCount-1] & 4) != 0;
+    }
+
+    // Returns true if any line is owned completely by one player.
+    public boolean hasWinner() {
+        return completedLines > 0;
+    }
+
+    // Returns the amount of pieces player has on a line.
+    public int count(int player, int line) {
+        return lineCounts[player][line];
+    }
+
+    // Returns the amount of placements on the undo stack.
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    // Forget every placement.
+    public void reset() {
+        for(int[] counts : lineCounts) Arrays.fill(counts, 0);
+        moveCount = 0;
+        completedLines = 0;
+    }
+}
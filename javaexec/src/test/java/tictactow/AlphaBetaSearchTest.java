@@ -0,0 +1,92 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the hard AI search engine.
+ */
+public class AlphaBetaSearchTest
+{
+    @Test
+    public void testingEmptyBoardIsADraw()
+    {
+        AlphaBetaSearch search = new AlphaBetaSearch(3);
+        SearchResult result = search.findBestMove(AlphaBetaSearch.X, 10000);
+        assertEquals(0, result.getScore());
+        assertEquals(9, result.getDepth());
+    }
+
+    @Test
+    public void testingTableKeepsThePlayerToMoveApart()
+    {
+        // . . X
+        // . O .
+        // . . .    A draw with either player to move, found on one
+        //          table that keeps the results of both searches.
+        AlphaBetaSearch search = new AlphaBetaSearch(3);
+        search.place(2, AlphaBetaSearch.X);
+        search.place(4, AlphaBetaSearch.O);
+        assertEquals(0, search.findBestMove(AlphaBetaSearch.X, 60000).getScore());
+        assertEquals(0, search.findBestMove(AlphaBetaSearch.O, 60000).getScore());
+    }
+
+    @Test
+    public void testingTakesWinningMove()
+    {
+        // O O .
+        // X X .
+        // X . .
+        AlphaBetaSearch search = new AlphaBetaSearch(3);
+        search.place(0, AlphaBetaSearch.O);
+        search.place(1, AlphaBetaSearch.O);
+        search.place(3, AlphaBetaSearch.X);
+        search.place(4, AlphaBetaSearch.X);
+        search.place(6, AlphaBetaSearch.X);
+
+        SearchResult result = search.findBestMove(AlphaBetaSearch.O, 10000);
+        assertEquals(2, result.getMove());
+        assertTrue(result.isDecided());
+    }
+
+    @Test
+    public void testingBlocksLosingMove()
+    {
+        // X . .
+        // . X .
+        // . . .
+        AlphaBetaSearch search = new AlphaBetaSearch(3);
+        search.place(0, AlphaBetaSearch.X);
+        search.place(4, AlphaBetaSearch.X);
+        search.place(2, AlphaBetaSearch.O);
+
+        SearchResult result = search.findBestMove(AlphaBetaSearch.O, 10000);
+        assertEquals(8, result.getMove());
+    }
+
+    @Test
+    public void testingLargeBoardAnswersWithinBudget()
+    {
+        AlphaBetaSearch search = new AlphaBetaSearch(5);
+        SearchResult result = search.findBestMove(AlphaBetaSearch.X, 200);
+        assertTrue(result.getMove() >= 0 && result.getMove() < 25);
+        assertTrue(result.getElapsedMillis() < 2000);
+    }
+
+    @Test
+    public void testingTightDeadlineStillBlocks()
+    {
+        // X has four in a row on the edge of a 15x15 five in a row board.
+        AlphaBetaSearch search = new AlphaBetaSearch(15, 5);
+        for(int i = 0; i < 4; i++) {
+            search.place(i, AlphaBetaSearch.X);
+            search.place(100 + 2*i, AlphaBetaSearch.O);
+        }
+
+        SearchResult result = search.findBestMove(AlphaBetaSearch.O, 20);
+        assertEquals(4, result.getMove());
+        assertTrue(result.getElapsedMillis() < 500);
+    }
+}
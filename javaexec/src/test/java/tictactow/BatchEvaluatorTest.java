@@ -0,0 +1,103 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit test for evaluating many boards at once.
+ */
+public class BatchEvaluatorTest
+{
+    @Test
+    public void testingStatusAndMovesInOrder()
+    {
+        try(BatchEvaluator evaluator = new BatchEvaluator(new GameEngine(3), 10000, AlphaBetaSearch.MAX_PLY, 4)) {
+            List<BatchEvaluator.Evaluation> results = evaluator.evaluate(Arrays.asList(
+                "XXXOO....",        // X won the top row
+                "XOXXOOOXX",        // full board, draw
+                "OO.XX.X..",        // O to move wins on tile 3
+                "X...O...."));      // X to move, no win for anyone
+
+            assertEquals(GameStatus.X_WON, results.get(0).getStatus());
+            assertEquals(GameStatus.DRAW, results.get(1).getStatus());
+            assertEquals(-1, results.get(1).getMove());
+            assertEquals(GameStatus.IN_PROGRESS, results.get(2).getStatus());
+            assertEquals(GameState.O, results.get(2).toMove());
+            assertEquals(2, results.get(2).getMove());
+            assertEquals(0, results.get(3).getScore());
+
+            // Many boards keep their order across the pool.
+            List<String> boards = new ArrayList<>();
+            for(int i = 0; i < 9; i++) {
+                char[] board = ".........".toCharArray();
+                board[i] = 'X';
+                boards.add(new String(board));
+            }
+            List<BatchEvaluator.Evaluation> openings = evaluator.evaluate(boards);
+            for(int i = 0; i < 9; i++) {
+                assertEquals(boards.get(i), openings.get(i).getBoard());
+                assertEquals(GameState.O, openings.get(i).toMove());
+            }
+        }
+    }
+
+    @Test
+    public void testingStreamingHandsOutResultsBeforeTheInputEnds()
+    {
+        try(BatchEvaluator evaluator = new BatchEvaluator(new GameEngine(3), 10000, AlphaBetaSearch.MAX_PLY, 2)) {
+            // Endless input: every board after the first 100 reads X in the centre.
+            Iterator<String> boards = new Iterator<String>() {
+                int read;
+
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public String next() {
+                    return read++ < 100 ? "........." : "....X....";
+                }
+            };
+
+            List<BatchEvaluator.Evaluation> results = new ArrayList<>();
+            try {
+                evaluator.evaluate(boards, evaluation -> {
+                    results.add(evaluation);
+                    if(results.size() == 101) throw new IllegalStateException("enough");
+                });
+                fail("The input never ends.");
+            } catch(IllegalStateException ex) {
+                assertEquals("enough", ex.getMessage());
+            }
+            assertEquals(".........", results.get(99).getBoard());
+            assertEquals("....X....", results.get(100).getBoard());
+        }
+    }
+
+    @Test
+    public void testingUnreachableBoardsAreRejected()
+    {
+        try(BatchEvaluator evaluator = new BatchEvaluator(new GameEngine(3), 100, AlphaBetaSearch.MAX_PLY, 1)) {
+            for(String board : new String[] {
+                    "XX.......",        // X moved twice
+                    "O........",        // O moved first
+                    "XXXOOO...",        // both players have a line
+                    "XXXOO.O.."}) {     // O moved after X won
+                try {
+                    evaluator.evaluate(board);
+                    fail(board + " can not be reached.");
+                } catch(IllegalArgumentException ex) {
+                    // Expected.
+                }
+            }
+        }
+    }
+}
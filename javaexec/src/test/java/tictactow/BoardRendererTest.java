@@ -0,0 +1,42 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+/**
+ * Unit test for drawing boards on the console.
+ */
+public class BoardRendererTest
+{
+    @Test
+    public void testingPlainFrame()
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BoardRenderer renderer = new BoardRenderer(new PrintStream(bytes), false);
+        GameState game = new GameEngine(3).newGame();
+        game.apply(0);
+        game.apply(4);
+        renderer.render(game);
+
+        String n = System.lineSeparator();
+        assertEquals(n + "X| | " + n + "-----" + n + " |O| " + n + "-----" + n + " | | " + n + "-----" + n + n, bytes.toString());
+    }
+
+    @Test
+    public void testingAnsiRedrawsOnlyChangedTiles()
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BoardRenderer renderer = new BoardRenderer(new PrintStream(bytes), true);
+        GameState game = new GameEngine(3).newGame();
+        renderer.render(game);
+
+        bytes.reset();
+        game.apply(5);                  // Second row, third column.
+        renderer.render(game);
+        assertEquals("\u001B7\u001B[4;5HX\u001B8", bytes.toString());
+    }
+}
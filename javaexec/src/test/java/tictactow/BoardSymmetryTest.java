@@ -0,0 +1,60 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the canonical position hashing.
+ */
+public class BoardSymmetryTest
+{
+    @Test
+    public void testingRotationsAndReflectionsShareAKey()
+    {
+        BoardSymmetry symmetry = BoardSymmetry.forSize(4);
+        GameEngine engine = new GameEngine(4);
+        GameState game = engine.replay(0, 5, 2, 11);
+        long key = symmetry.canonicalKey(game);
+
+        for(int s = 0; s < BoardSymmetry.COUNT; s++) {
+            GameState image = engine.newGame();
+            for(int i = 0; i < game.getHistoryLength(); i++) {
+                image.apply(symmetry.transform(s, game.moveAt(i)));
+            }
+            assertEquals(key, symmetry.canonicalKey(image));
+
+            // The incremental hash agrees with the one built from scratch.
+            SymmetricHash hash = new SymmetricHash(symmetry);
+            for(int i = 0; i < image.getHistoryLength(); i++) hash.toggle(image.moveAt(i), image.playerAt(i));
+            assertEquals(key, hash.canonicalKey());
+        }
+
+        // Swapping two pieces is a different position.
+        assertNotEquals(key, symmetry.canonicalKey(engine.replay(5, 0, 2, 11)));
+    }
+
+    @Test
+    public void testingTableMovesMapBackOntoTheBoard()
+    {
+        // Two mirrored positions share their table entries, and the
+        // winning move still has to be found on each board.
+        // X X .        . X X
+        // O O .        . O O
+        // . . .        . . .
+        AlphaBetaSearch search = new AlphaBetaSearch(3);
+        search.place(0, AlphaBetaSearch.X);
+        search.place(1, AlphaBetaSearch.X);
+        search.place(3, AlphaBetaSearch.O);
+        search.place(4, AlphaBetaSearch.O);
+        assertEquals(2, search.findBestMove(AlphaBetaSearch.X, 10000).getMove());
+
+        search.clear();
+        search.place(2, AlphaBetaSearch.X);
+        search.place(1, AlphaBetaSearch.X);
+        search.place(5, AlphaBetaSearch.O);
+        search.place(4, AlphaBetaSearch.O);
+        assertEquals(0, search.findBestMove(AlphaBetaSearch.X, 10000).getMove());
+    }
+}
@@ -0,0 +1,74 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for the retrograde endgame solver.
+ */
+public class EndgameSolverTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testingAgreesWithTheTablebase() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("3x3.tablebase");
+        Tablebase.generate(file);
+        Tablebase tablebase = Tablebase.open(file);
+
+        try(EndgameSolver solver = EndgameSolver.open(folder.getRoot().toPath().resolve("3x3.endgame"), 3)) {
+            solver.solve();
+            assertTrue(solver.isSolved());
+
+            // Every position after the first three moves.
+            GameEngine engine = new GameEngine(3);
+            for(int a = 0; a < 9; a++) {
+                for(int b = 0; b < 9; b++) {
+                    for(int c = 0; c < 9; c++) {
+                        if(a == b || b == c || a == c) continue;
+                        GameState game = engine.replay(a, b, c);
+                        assertEquals(Tablebase.result(tablebase.lookup(game)), solver.result(game));
+                    }
+                }
+            }
+
+            // O O .
+            // X X .
+            // X . .    O to move wins on the top row.
+            GameState game = engine.replay(3, 0, 4, 1, 6);
+            assertEquals(Tablebase.WIN, solver.result(game));
+            assertEquals(2, solver.bestMove(game));
+        }
+    }
+
+    @Test
+    public void testingInterruptedSolveResumes() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("4x4.endgame");
+        GameState empty = new GameEngine(4).newGame();
+
+        // Stop after the full and almost full boards.
+        try(EndgameSolver solver = EndgameSolver.open(file, 4)) {
+            assertFalse(solver.solve(3));
+            assertEquals(14, solver.getSolvedFrom());
+            assertEquals(0, solver.result(empty));
+        }
+
+        try(EndgameSolver solver = EndgameSolver.open(file, 4)) {
+            assertEquals(14, solver.getSolvedFrom());
+            assertTrue(solver.solve(17));
+            assertEquals(Tablebase.DRAW, solver.result(empty));
+            assertTrue(solver.getPositions() > 0);
+        }
+    }
+}
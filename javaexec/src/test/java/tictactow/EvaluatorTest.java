@@ -0,0 +1,62 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the static evaluation and move ordering of the search.
+ */
+public class EvaluatorTest
+{
+    @Test
+    public void testingOpenLinesAreScoredIncrementally()
+    {
+        WinTracker tracker = new WinTracker(3);
+        Evaluator evaluator = new Evaluator(tracker);
+
+        // X in the center opens its row, column and both diagonals.
+        evaluator.place(4, GameState.X);
+        tracker.place(4, GameState.X);
+        assertEquals(4, evaluator.score(GameState.X));
+
+        // O in a corner opens two lines and closes a diagonal for X.
+        evaluator.place(0, GameState.O);
+        tracker.place(0, GameState.O);
+        assertEquals(1, evaluator.score(GameState.X));
+        assertEquals(-1, evaluator.score(GameState.O));
+
+        evaluator.undo();
+        tracker.undo();
+        assertEquals(4, evaluator.score(GameState.X));
+    }
+
+    @Test
+    public void testingThreatsAreOrderedFirst()
+    {
+        // X X . .
+        // O O . .
+        // . . . .
+        // . . . .
+        int[] cells = new int[16];
+        WinTracker tracker = new WinTracker(4, 3);
+        MoveGenerator generator = new MoveGenerator(tracker, cells);
+        int[][] pieces = {{0, GameState.X}, {4, GameState.O}, {1, GameState.X}, {5, GameState.O}};
+        for(int[] piece : pieces) {
+            cells[piece[0]] = piece[1];
+            tracker.place(piece[0], piece[1]);
+            generator.update(piece[0], 1);
+        }
+
+        // X to move: its own win on tile 3 comes before blocking O on tile 7.
+        int[] moves = generator.generate(0, GameState.X, -1);
+        assertEquals(2, moves[0]);
+        assertEquals(6, moves[1]);
+
+        // Taking X back from tile 2 leaves only the block on tile 7.
+        cells[1] = GameState.EMPTY;
+        tracker.remove(1);
+        generator.update(1, -1);
+        assertEquals(6, generator.generate(0, GameState.X, -1)[0]);
+    }
+}
@@ -0,0 +1,138 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for writing and replaying game records.
+ */
+public class GameRecordTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testingStreamedGamesReplay() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("games.rec");
+
+        // Two sessions append to the same file.
+        try(GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.beginGame(3, 3, GameRecord.Player.HUMAN, GameRecord.Player.HUMAN);
+            writer.move(0, 1200);
+            writer.move(GameRecord.PASS, 10000);
+            writer.move(1, 300);
+            writer.move(4, 5);
+            writer.move(2, 800);
+            writer.endGame(GameStatus.X_WON);
+        }
+        try(GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.beginGame(15, 5, GameRecord.Player.HUMAN, GameRecord.Player.MONTE_CARLO);
+            writer.move(224, 70000);
+            writer.endGame(GameStatus.IN_PROGRESS);
+
+            // Cut off by a crash, never ended.
+            writer.beginGame(3, 3, GameRecord.Player.HUMAN, GameRecord.Player.EASY);
+            writer.move(4, 10);
+        }
+
+        try(GameRecordReader reader = new GameRecordReader(file)) {
+            GameRecord first = reader.next();
+            assertEquals(5, first.getMoveCount());
+            assertEquals(GameRecord.PASS, first.moveAt(1));
+            assertEquals(10000, first.millisAt(1));
+            assertEquals(GameStatus.X_WON, first.getResult());
+            assertEquals(GameStatus.X_WON, first.replay().status());
+
+            GameRecord second = reader.next();
+            assertEquals(15, second.getSize());
+            assertEquals(5, second.getWinLength());
+            assertEquals(GameRecord.Player.MONTE_CARLO, second.getOPlayer());
+            assertEquals(224, second.moveAt(0));
+            assertEquals(70000, second.millisAt(0));
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testingGamesAfterACrashAreRead() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("games.rec");
+        try(GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.beginGame(3, 3, GameRecord.Player.HUMAN, GameRecord.Player.HARD);
+            writer.move(4, 10);
+            writer.endGame(GameStatus.IN_PROGRESS);
+        }
+
+        // A crash in the middle of a game: the moves so far were flushed,
+        // the writer was never closed.
+        long beforeCrash = Files.size(file);
+        GameRecordWriter crashed = new GameRecordWriter(file);
+        crashed.beginGame(4, 4, GameRecord.Player.HUMAN, GameRecord.Player.HUMAN);
+        crashed.move(0, 20);
+        long afterCrash = Files.size(file);
+
+        // The next session appends a game O opens.
+        try(GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.beginGame(3, 3, GameRecord.Player.HUMAN, GameRecord.Player.HUMAN, GameState.O);
+            writer.move(0, 5);
+            writer.move(3, 5);
+            writer.move(1, 5);
+            writer.move(4, 5);
+            writer.move(2, 5);
+            writer.endGame(GameStatus.O_WON);
+        }
+        crashed.close();
+
+        // Size, win length, the players and the first mover, then the move and its time.
+        assertEquals(5 + 2, afterCrash - beforeCrash);
+
+        try(GameRecordReader reader = new GameRecordReader(file)) {
+            assertEquals(GameStatus.IN_PROGRESS, reader.next().getResult());
+
+            GameRecord opened = reader.next();
+            assertEquals(GameState.O, opened.getFirstPlayer());
+            GameState game = opened.replay();
+            assertEquals(GameState.O, game.get(0));
+            assertEquals(GameStatus.O_WON, game.status());
+
+            assertNull(reader.next());
+            assertFalse(reader.isDamaged());
+        }
+    }
+
+    @Test
+    public void testingReadingStopsAtDamage() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("games.rec");
+        try(GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.beginGame(3, 3, GameRecord.Player.HUMAN, GameRecord.Player.EASY);
+            writer.move(4, 10);
+            writer.endGame(GameStatus.IN_PROGRESS);
+        }
+        long complete = Files.size(file);
+        try(OutputStream out = Files.newOutputStream(file, StandardOpenOption.APPEND)) {
+            out.write(new byte[] {3, 3, 0, 9, 1, 0x7F, 0});
+        }
+
+        try(GameRecordReader reader = new GameRecordReader(file)) {
+            assertEquals(4, reader.next().moveAt(0));
+            assertNull(reader.next());
+            assertTrue(reader.isDamaged());
+            assertEquals(complete, reader.getCompleteLength());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package tictactow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the headless game engine.
+ */
+public class GameStateTest
+{
+    @Test
+    public void testingWinDrawAndUndo()
+    {
+        GameEngine engine = new GameEngine(3);
+
+        // X takes the left column.
+        GameState game = engine.replay(0, 1, 3, 4);
+        assertEquals(GameStatus.IN_PROGRESS, game.status());
+        assertEquals(GameState.X, game.toMove());
+        assertEquals(GameStatus.X_WON, game.apply(6));
+        assertEquals(0, game.legalMoves().length);
+
+        game.undo();
+        assertEquals(GameStatus.IN_PROGRESS, game.status());
+        assertArrayEquals(new int[] {2, 5, 6, 7, 8}, game.legalMoves());
+
+        GameState draw = engine.replay(0, 4, 8, 1, 7, 6, 2, 5, 3);
+        assertEquals(GameStatus.DRAW, draw.status());
+    }
+
+    @Test
+    public void testingPassAndCopyAreIndependent()
+    {
+        GameState game = new GameEngine(4).newGame();
+        game.apply(5);
+        game.pass();
+        assertEquals(GameState.X, game.toMove());
+
+        GameState copy = game.copy();
+        copy.apply(6);
+        assertTrue(game.isEmpty(6));
+        assertEquals(GameState.O, copy.toMove());
+
+        game.undo();
+        assertEquals(GameState.O, game.toMove());
+
+        // A copy before the first move keeps who starts.
+        assertEquals(GameState.O, new GameEngine(4).newGame(GameState.O).copy().toMove());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testingFilledTileIsRejected()
+    {
+        GameState game = new GameEngine(3).newGame();
+        game.apply(4);
+        game.apply(4);
+    }
+
+    @Test
+    public void testingFiveInARowOnALargeBoard()
+    {
+        GameEngine engine = new GameEngine(15, 5);
+        assertEquals(5, engine.getWinLength());
+
+        // X builds a diagonal away from the main diagonal, O plays elsewhere.
+        GameState game = engine.newGame();
+        for(int i = 0; i < 4; i++) {
+            game.apply((3+i)*15 + 6+i);
+            game.apply(i);
+        }
+        assertEquals(GameStatus.IN_PROGRESS, game.status());
+        assertEquals(GameStatus.X_WON, game.apply(7*15 + 10));
+
+        // Four in a row is not enough, the fifth piece wins.
+        GameState row = engine.replay(100, 0, 101, 1, 102, 2, 103, 3);
+        assertEquals(GameStatus.IN_PROGRESS, row.status());
+        assertEquals(GameStatus.X_WON, row.apply(104));
+    }
+}
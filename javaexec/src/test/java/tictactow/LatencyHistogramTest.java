@@ -0,0 +1,42 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the log-linear latency histogram.
+ */
+public class LatencyHistogramTest
+{
+    @Test
+    public void testingPercentilesWithinPrecision()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long value = 1; value <= 100000; value++) histogram.record(value * 1000);
+
+        assertEquals(100000, histogram.getCount());
+        assertEquals(100000000L, histogram.getMax());
+        long p50 = histogram.valueAtPercentile(50);
+        long p99 = histogram.valueAtPercentile(99);
+        assertTrue(p50 >= 50000000L && p50 <= 50000000L * 1.016);
+        assertTrue(p99 >= 99000000L && p99 <= 99000000L * 1.016);
+        assertEquals(histogram.getMax(), histogram.valueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    public void testingBucketsCoverEveryValue()
+    {
+        // Every value lies in the bucket it is counted in.
+        long[] values = {0, 1, 127, 128, 129, 255, 256, 1000003, Long.MAX_VALUE};
+        for(long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValueOf(bucket-1) < value);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for the networked multiplayer server, played by local clients.
+ */
+public class MatchServerTest
+{
+    private MatchServer server;
+
+    @Before
+    public void startServer() throws IOException
+    {
+        server = new MatchServer(0, 300);
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws IOException
+    {
+        server.close();
+    }
+
+    // A client stand-in speaking the line protocol.
+    private class Client implements AutoCloseable
+    {
+        final Socket socket;
+        final BufferedReader in;
+        final PrintWriter out;
+
+        Client() throws IOException
+        {
+            socket = new Socket("localhost", server.getPort());
+            socket.setSoTimeout(5000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            out = new PrintWriter(socket.getOutputStream(), true);
+            assertEquals("WELCOME tictactoe", in.readLine());
+        }
+
+        void send(String line)
+        {
+            out.println(line);
+        }
+
+        // Skip lines until one starts with prefix.
+        String expect(String prefix) throws IOException
+        {
+            String line;
+            while((line = in.readLine()) != null) {
+                if(line.startsWith(prefix)) return line;
+            }
+            throw new IOException("Connection closed before " + prefix);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testingFullGameWithTimeout() throws IOException
+    {
+        try(Client x = new Client(); Client o = new Client()) {
+            x.send("JOIN 3");
+            assertEquals("WAITING 3 3", x.expect("WAITING"));
+            o.send("JOIN 3");
+            assertEquals("START 3 X 3", x.expect("START"));
+            assertEquals("START 3 O 3", o.expect("START"));
+
+            x.send("MOVE 1");
+            assertEquals("MOVED X 1", o.expect("MOVED"));
+            o.send("MOVE 1");
+            assertEquals("ERROR Invalid tile.", o.expect("ERROR"));
+
+            // O lets the clock run out and X moves again.
+            assertEquals("TIMEOUT O", x.expect("TIMEOUT"));
+            x.send("MOVE 2");
+            x.expect("MOVED X 2");
+            o.send("MOVE 5");
+            x.expect("MOVED O 5");
+            x.send("MOVE 3");
+            assertEquals("WIN X", o.expect("WIN"));
+            assertEquals("WIN X", x.expect("WIN"));
+            assertEquals("BOARD XXX.O....", state(x));
+        }
+    }
+
+    @Test
+    public void testingManyConcurrentMatches() throws Exception
+    {
+        // The matches are played one after the other, so no turn
+        // may time out while the earlier ones are being played.
+        server.close();
+        server = new MatchServer(0, 60000);
+        server.start();
+
+        int matches = 50;
+        Client[] clients = new Client[matches*2];
+        // Join in pairs so every even client plays the next odd one.
+        for(int i = 0; i < clients.length; i += 2) {
+            clients[i] = new Client();
+            clients[i+1] = new Client();
+            clients[i].send("JOIN 3");
+            clients[i].expect("WAITING");
+            clients[i+1].send("JOIN 3");
+            clients[i].expect("START");
+        }
+
+        // Every match ends with X taking the top row.
+        for(int i = 0; i < clients.length; i += 2) {
+            Client x = clients[i], o = clients[i+1];
+            x.expect("TURN X");
+            x.send("MOVE 1"); o.expect("TURN O");
+            o.send("MOVE 4"); x.expect("TURN X");
+            x.send("MOVE 2"); o.expect("TURN O");
+            o.send("MOVE 5"); x.expect("TURN X");
+            x.send("MOVE 3");
+            assertEquals("WIN X", o.expect("WIN"));
+        }
+        for(Client client : clients) client.close();
+        assertEquals(0, server.getActiveMatches());
+    }
+
+    @Test
+    public void testingMatchWithoutMovesIsAbandoned() throws IOException
+    {
+        try(Client x = new Client(); Client o = new Client()) {
+            x.send("JOIN 3");
+            x.expect("WAITING");
+            o.send("JOIN 3");
+
+            // Both players let every turn time out.
+            assertEquals("TIMEOUT X", o.expect("TIMEOUT"));
+            assertEquals("TIMEOUT O", o.expect("TIMEOUT"));
+            assertEquals("ABANDONED", o.expect("ABANDONED"));
+            assertEquals("ABANDONED", x.expect("ABANDONED"));
+            assertEquals(0, server.getActiveMatches());
+        }
+    }
+
+    @Test
+    public void testingClientThatNeverReadsHoldsNobodyUp() throws Exception
+    {
+        server.close();
+        server = new MatchServer(0, 1000);
+        server.start();
+
+        try(Client stuck = new Client(); Client opponent = new Client()) {
+            stuck.send("JOIN 30");
+            stuck.expect("WAITING");
+            opponent.send("JOIN 30");
+            opponent.expect("START");
+
+            // Ask for the 900 tile board over and over without reading
+            // any of it, far more than the socket buffers hold.
+            for(int i = 0; i < 20000; i++) stuck.send("STATE");
+
+            // Other matches still get through the lobby and their
+            // turns still time out.
+            try(Client x = new Client(); Client o = new Client()) {
+                x.send("JOIN 3");
+                x.expect("WAITING");
+                o.send("JOIN 3");
+                assertEquals("TIMEOUT X", o.expect("TIMEOUT"));
+                o.send("MOVE 5");
+                assertEquals("MOVED O 5", x.expect("MOVED"));
+            }
+
+            // The client that fell behind was dropped.
+            assertEquals("FORFEIT X", opponent.expect("FORFEIT"));
+        }
+    }
+
+    @Test
+    public void testingOpponentGoneBeforeTheMatchStartsForfeits() throws Exception
+    {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try(ServerSocket listener = new ServerSocket(0);
+                Socket waitingClient = new Socket("localhost", listener.getLocalPort());
+                Socket waitingSocket = listener.accept();
+                Socket joiningClient = new Socket("localhost", listener.getLocalPort());
+                Socket joiningSocket = listener.accept()) {
+            PlayerConnection waiting = new PlayerConnection(server, waitingSocket);
+            PlayerConnection joining = new PlayerConnection(server, joiningSocket);
+            Thread.startVirtualThread(joining);
+
+            // The waiting player disconnects after the joiner took it out
+            // of the lobby, but before the match was started.
+            waiting.close();
+            new Match(new GameEngine(3), waiting, joining, timer, 60000, () -> {}).start();
+
+            joiningClient.setSoTimeout(5000);
+            BufferedReader in = new BufferedReader(new InputStreamReader(joiningClient.getInputStream()));
+            String line;
+            while(!(line = in.readLine()).startsWith("FORFEIT")) {
+                assertFalse(line, line.startsWith("TURN"));
+            }
+            assertEquals("FORFEIT X", line);
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    private static String state(Client client) throws IOException
+    {
+        client.send("STATE");
+        return client.expect("BOARD");
+    }
+}
@@ -0,0 +1,35 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the Monte Carlo tree search.
+ */
+public class MonteCarloSearchTest
+{
+    @Test
+    public void testingTakesWinningMoveOnEveryThread()
+    {
+        // O O .
+        // X X .
+        // X . .    O to move wins on the top row.
+        GameState game = new GameEngine(3).replay(3, 0, 4, 1, 6);
+        MonteCarloResult result = new MonteCarloSearch(4).findBestMove(game, 10000, 20000);
+        assertEquals(2, result.getMove());
+        assertEquals(20000, result.getPlayouts());
+        assertEquals(4, result.getThreads());
+    }
+
+    @Test
+    public void testingPlaysLargeBoards()
+    {
+        // 9x9 five in a row, X threatens an open four on the middle row.
+        GameState game = new GameEngine(9, 5).replay(39, 0, 40, 8, 41, 72, 42);
+        MonteCarloResult result = new MonteCarloSearch(2).findBestMove(game, 10000, 20000);
+        assertTrue(result.getMove() == 38 || result.getMove() == 43);
+        assertTrue(result.getPlayoutsPerSecond() > 0);
+    }
+}
@@ -0,0 +1,92 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the opening book and move cache.
+ */
+public class OpeningBookTest
+{
+    @Test
+    public void testingRotatedPositionsShareAMove()
+    {
+        OpeningBook book = new OpeningBook(16);
+        GameState game = new GameEngine(4).newGame();
+        game.apply(0);                  // X in the top left corner.
+        assertEquals(-1, book.lookup(game));
+        book.store(game, solved(5));
+
+        // The same position turned a quarter clockwise.
+        GameState rotated = new GameEngine(4).newGame();
+        rotated.apply(3);
+        assertEquals(6, book.lookup(rotated));
+        assertEquals(1, book.getHits());
+        assertEquals(1, book.getMisses());
+
+        // Other rules are other positions.
+        GameState threeInARow = new GameEngine(4, 3).newGame();
+        threeInARow.apply(0);
+        assertEquals(-1, book.lookup(threeInARow));
+    }
+
+    @Test
+    public void testingCacheEvictsLeastRecentlyUsed()
+    {
+        OpeningBook book = new OpeningBook(2, 0);
+        GameState[] games = new GameState[3];
+        int[] tiles = {0, 1, 5};        // Three positions without a common symmetry.
+        for(int i = 0; i < games.length; i++) {
+            games[i] = new GameEngine(4).newGame();
+            games[i].apply(tiles[i]);
+        }
+
+        book.store(games[0], solved(15));
+        book.store(games[1], solved(15));
+        book.lookup(games[0]);          // Makes games[1] the least recently used.
+        book.store(games[2], solved(15));
+
+        assertEquals(2, book.size());
+        assertEquals(-1, book.lookup(games[1]));
+        assertEquals(15, book.lookup(games[0]));
+    }
+
+    @Test
+    public void testingOnlyCompleteSearchesAreKept()
+    {
+        OpeningBook book = new OpeningBook(16);
+        GameState game = new GameEngine(4).newGame();
+        game.apply(0);
+
+        // Stopped by the clock after 6 of the 15 remaining plies.
+        assertFalse(book.store(game, new SearchResult(5, 40, 6, 0, 0, 0, 0)));
+        assertEquals(-1, book.lookup(game));
+
+        // A forced win is final at any depth.
+        book.store(game, new SearchResult(5, AlphaBetaSearch.WIN_SCORE - 3, 3, 0, 0, 0, 0));
+        assertEquals(5, book.lookup(game));
+    }
+
+    @Test
+    public void testingPlayerToMoveIsPartOfThePosition()
+    {
+        OpeningBook book = new OpeningBook(16);
+        GameState game = new GameEngine(4).newGame();
+        game.apply(0);
+        book.store(game, solved(5));
+
+        // The same board after a pass, with X to move.
+        GameState passed = new GameEngine(4).newGame();
+        passed.apply(0);
+        passed.pass();
+        assertEquals(-1, book.lookup(passed));
+    }
+
+    // A result searched to the end of any game on a 4x4 board.
+    private static SearchResult solved(int move)
+    {
+        return new SearchResult(move, 0, 16, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,54 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the Lazy SMP parallel search.
+ */
+public class ParallelSearchTest
+{
+    @Test
+    public void testingSameResultAsOneThread()
+    {
+        // Solving 3x3 from the empty board is a draw on any amount of threads.
+        GameState game = new GameEngine(3).newGame();
+        SearchResult single = new ParallelSearch(3, 3, 1).findBestMove(game, 60000);
+        SearchResult parallel = new ParallelSearch(3, 3, 4).findBestMove(game, 60000);
+        assertEquals(0, single.getScore());
+        assertEquals(single.getScore(), parallel.getScore());
+        assertEquals(9, parallel.getDepth());
+    }
+
+    @Test
+    public void testingSharedTableFindsForcedMoves()
+    {
+        // X threatens the top row of a 4x4 board, O must block tile 4.
+        GameState game = new GameEngine(4).newGame();
+        game.apply(0);
+        game.apply(12);
+        game.apply(1);
+        game.apply(13);
+        game.apply(2);
+        ParallelSearch search = new ParallelSearch(4, 4, 4);
+        assertEquals(3, search.findBestMove(game, 60000, 6).getMove());
+
+        // The same search again, now helped by the filled table.
+        assertEquals(3, search.findBestMove(game, 60000, 6).getMove());
+    }
+
+    @Test
+    public void testingEnginesShareTheirHelperThreads()
+    {
+        // Fifty engines of four threads each would have left 150 idle
+        // helpers behind with a pool per engine.
+        GameState game = new GameEngine(3).newGame();
+        for(int i = 0; i < 50; i++) new ParallelSearch(3, 3, 4).findBestMove(game, 60000, 3);
+
+        long helpers = Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getName().equals("search-helper")).count();
+        assertTrue(helpers + " helper threads", helpers <= Runtime.getRuntime().availableProcessors());
+    }
+}
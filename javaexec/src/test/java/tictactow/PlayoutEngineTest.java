@@ -0,0 +1,49 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the random playout engine.
+ */
+public class PlayoutEngineTest
+{
+    @Test
+    public void testingResetRestoresTheStartingPosition()
+    {
+        // X . .
+        // . O .
+        // . . .    X to move.
+        PlayoutEngine engine = new PlayoutEngine(BoardLines.forSize(3), 42);
+        engine.setPosition(new GameEngine(3).replay(0, 4));
+
+        long[] wins = new long[3];
+        engine.playouts(10000, wins);
+        assertEquals(10000, wins[0] + wins[1] + wins[2]);
+        assertTrue(wins[PlayoutEngine.X] > wins[PlayoutEngine.O]);
+
+        // Every playout started from the same board.
+        assertEquals(7, engine.getEmptyCount());
+        assertEquals(PlayoutEngine.X, engine.toMove());
+        assertEquals(PlayoutEngine.X, engine.get(0));
+        assertEquals(PlayoutEngine.O, engine.get(4));
+        for(int i = 0; i < engine.getEmptyCount(); i++) {
+            assertEquals(PlayoutEngine.EMPTY, engine.get(engine.emptyCell(i)));
+        }
+    }
+
+    @Test
+    public void testingPlayDetectsTheWin()
+    {
+        PlayoutEngine engine = new PlayoutEngine(BoardLines.forSize(3), 1);
+        engine.play(0);
+        engine.play(3);
+        engine.play(1);
+        engine.play(4);
+        assertTrue(engine.play(2));
+        assertTrue(engine.isOver());
+        assertEquals(PlayoutEngine.X, engine.winner());
+    }
+}
@@ -0,0 +1,73 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for searching on the opponent's time.
+ */
+public class PondererTest
+{
+    // O threatens the top row of a 4x4 board, X to move has to block tile 4.
+    private static GameState threatenedGame()
+    {
+        GameState game = new GameEngine(4).newGame();
+        int[] moves = {5, 0, 10, 1, 13, 2};
+        for(int move : moves) game.apply(move);
+        return game;
+    }
+
+    @Test
+    public void testingPredictedReplyIsAnsweredFromPonder() throws InterruptedException
+    {
+        HardAI ai = new HardAI(200, null, 2);
+        GameState game = threatenedGame();
+        ai.ponder(game);
+
+        // Four empty tiles and a blocked row are searched to the end.
+        assertTrue(ai.getPonderer().awaitCompletion(30000));
+        assertTrue(ai.getPonderer().isAnswerComplete());
+
+        game.apply(3);
+        int move = ai.chooseMove(game);
+        assertTrue(ai.isLastFromPonder());
+        assertTrue(game.isEmpty(move));
+        assertEquals(1, ai.getPonderer().getHits());
+    }
+
+    @Test
+    public void testingOtherReplyIsSearched() throws InterruptedException
+    {
+        HardAI ai = new HardAI(200, null, 1);
+        GameState game = threatenedGame();
+        ai.ponder(game);
+        assertTrue(ai.getPonderer().awaitCompletion(30000));
+
+        // X does not block, O completes its row.
+        game.apply(15);
+        assertEquals(3, ai.chooseMove(game));
+        assertFalse(ai.isLastFromPonder());
+        assertEquals(1, ai.getPonderer().getMisses());
+        ai.reset();
+    }
+
+    @Test
+    public void testingFailedPonderIsForgotten()
+    {
+        // A 3x3 engine can not set up a 4x4 game, so the pondering fails.
+        Ponderer ponderer = new Ponderer(new ParallelSearch(3, 3, 1));
+        GameState game = threatenedGame();
+        ponderer.start(game, 100);
+        ponderer.stop();
+
+        // Nothing is left over to fail again.
+        ponderer.stop();
+        game.apply(3);
+        assertNull(ponderer.answerFor(game));
+        assertFalse(ponderer.isAnswerComplete());
+    }
+}
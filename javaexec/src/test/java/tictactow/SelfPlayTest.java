@@ -0,0 +1,25 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the AI versus AI harness.
+ */
+public class SelfPlayTest
+{
+    @Test
+    public void testingHardNeverLosesOn3x3()
+    {
+        SelfPlay.Result asO = SelfPlay.play(3, 200, "easy", "hard", 4, 1000);
+        assertEquals(200, asO.getGames());
+        assertEquals(0, asO.getXWins());
+
+        SelfPlay.Result asX = SelfPlay.play(3, 200, "medium", "hard", 4, 1000);
+        assertEquals(0, asX.getXWins());
+
+        SelfPlay.Result hardVsHard = SelfPlay.play(3, 20, "hard", "hard", 2, 1000);
+        assertEquals(20, hardVsHard.getDraws());
+    }
+}
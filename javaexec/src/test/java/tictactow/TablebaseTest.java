@@ -0,0 +1,80 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for the 3x3 tablebase.
+ */
+public class TablebaseTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testingEmptyBoardIsADrawAfterNineMoves() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("3x3.tablebase");
+        Tablebase.generate(file);
+        Tablebase tablebase = Tablebase.open(file);
+
+        long entry = tablebase.lookup(new GameEngine(3).newGame());
+        assertEquals(Tablebase.DRAW, Tablebase.result(entry));
+        assertEquals(9, Tablebase.distance(entry));
+
+        // O O .
+        // X X .
+        // X . .    O to move wins on the top row.
+        GameState game = new GameEngine(3).replay(3, 0, 4, 1, 6);
+        assertEquals(2, tablebase.bestMove(game));
+        assertEquals(Tablebase.WIN, Tablebase.result(tablebase.lookup(game)));
+
+        // Other rules are left to the search.
+        assertEquals(0, tablebase.lookup(new GameEngine(4).newGame()));
+
+        // The table built in memory is the same as the file.
+        assertEquals(tablebase.lookup(game), Tablebase.build().lookup(game));
+    }
+
+    @Test
+    public void testingAgreesWithTheSearch() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("3x3.tablebase");
+        Tablebase.generate(file);
+        Tablebase tablebase = Tablebase.open(file);
+        AlphaBetaSearch search = new AlphaBetaSearch(3);
+
+        // Every position after the first three moves.
+        GameEngine engine = new GameEngine(3);
+        for(int a = 0; a < 9; a++) {
+            for(int b = 0; b < 9; b++) {
+                for(int c = 0; c < 9; c++) {
+                    if(a == b || b == c || a == c) continue;
+                    GameState game = engine.replay(a, b, c);
+                    long entry = tablebase.lookup(game);
+
+                    search.setPosition(game);
+                    int score = search.findBestMove(game.toMove(), 10000).getScore();
+                    int expected = score > 0 ? Tablebase.WIN : score < 0 ? Tablebase.LOSS : Tablebase.DRAW;
+                    assertEquals(expected, Tablebase.result(entry));
+
+                    // The stored move keeps that result.
+                    int move = Tablebase.move(entry);
+                    assertTrue(game.isEmpty(move));
+                    game.apply(move);
+                    if(!game.isOver()) {
+                        int reply = Tablebase.result(tablebase.lookup(game));
+                        assertEquals(expected, reply == Tablebase.WIN ? Tablebase.LOSS : reply == Tablebase.LOSS ? Tablebase.WIN : reply);
+                    }
+                }
+            }
+        }
+    }
+}
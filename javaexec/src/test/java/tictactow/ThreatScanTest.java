@@ -0,0 +1,43 @@
+package tictactow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the threat scan and the medium AI built on it.
+ */
+public class ThreatScanTest
+{
+    @Test
+    public void testingFindsColumnAndDiagonalThreats()
+    {
+        // X O .
+        // X O .
+        // . . .    Both players threaten a column.
+        GameState game = new GameEngine(3).replay(0, 1, 3, 4);
+        ThreatScan threats = ThreatScan.of(game);
+        assertArrayEquals(new int[] {6}, threats.winningMoves(GameState.X));
+        assertArrayEquals(new int[] {7}, threats.winningMoves(GameState.O));
+        assertArrayEquals(new int[] {7}, threats.blockingMoves(GameState.X));
+
+        // 5 in a row on 7x7: O threatens the anti-diagonal from both ends.
+        GameState large = new GameEngine(7, 5).replay(0, 11, 1, 17, 2, 23, 7, 29);
+        ThreatScan diagonal = ThreatScan.of(large);
+        assertArrayEquals(new int[] {5, 35}, diagonal.winningMoves(GameState.O));
+        assertFalse(diagonal.hasWinningMove(GameState.X));
+    }
+
+    @Test
+    public void testingMediumWinsBeforeBlocking()
+    {
+        GameState game = new GameEngine(3).replay(0, 1, 3, 4);
+        assertEquals(6, new MediumAI().chooseMove(game));
+
+        // O to move, X threatens the diagonal.
+        GameState block = new GameEngine(3).replay(0, 1, 4);
+        assertEquals(8, new MediumAI().chooseMove(block));
+    }
+}
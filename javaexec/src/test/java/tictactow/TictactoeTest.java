@@ -1,5 +1,6 @@
 package tictactow;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -27,4 +28,45 @@ public class TictactoeTest
         Tictactoe.initializeBoardSize(10);
         assertTrue(Tictactoe.getBoardPieceAmount() == 10*10);
     }
+
+    @Test
+    public void testingVictoryDetection()
+    {
+        // Small (single long) and large (long[]) bitboards.
+        for(int size : new int[] {3, 4, 8, 9, 12}) {
+
+            // Fill the last row.
+            Tictactoe.initializeBoardSize(size);
+            for(int i = 0; i < size-1; i++) Tictactoe.insertPiece(size*(size-1) + i, Tictactoe.BoardPiece.X);
+            assertFalse(Tictactoe.checkIfPlayerWon());
+            Tictactoe.insertPiece(size*size - 1, Tictactoe.BoardPiece.X);
+            assertTrue(Tictactoe.checkIfPlayerWon());
+
+            // Fill the first column.
+            Tictactoe.initializeBoardSize(size);
+            for(int i = 0; i < size; i++) Tictactoe.insertPiece(i*size, Tictactoe.BoardPiece.O);
+            assertTrue(Tictactoe.checkIfPlayerWon());
+
+            // Fill the top right to bottom left diagonal with one foreign piece.
+            Tictactoe.initializeBoardSize(size);
+            Tictactoe.insertPiece(size-1, Tictactoe.BoardPiece.X);
+            for(int i = 1; i < size; i++) Tictactoe.insertPiece(i*size + size-1-i, Tictactoe.BoardPiece.O);
+            assertFalse(Tictactoe.checkIfPlayerWon());
+        }
+    }
+
+    @Test
+    public void testingBoardIsFull()
+    {
+        // Fill a 9x9 board without completing a line.
+        AITictactoe.initializeBoardSize(9);
+        for(int i = 0; i < 9*9; i++) {
+            assertFalse(AITictactoe.boardIsFull());
+            int row = i / 9, column = i % 9;
+            if((column + 2*row) % 4 < 2) AITictactoe.insertPiece(i, AITictactoe.BoardPiece.X);
+            else AITictactoe.insertPiece(i, AITictactoe.BoardPiece.O);
+        }
+        assertFalse(AITictactoe.checkForVictory());
+        assertTrue(AITictactoe.boardIsFull());
+    }
 }
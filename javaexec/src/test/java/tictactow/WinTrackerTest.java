@@ -0,0 +1,45 @@
+package tictactow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the incremental win detection.
+ */
+public class WinTrackerTest
+{
+    @Test
+    public void testingDiagonalWinAndUndo()
+    {
+        WinTracker tracker = new WinTracker(4);
+        assertFalse(tracker.place(0, Bitboard.X));
+        assertFalse(tracker.place(5, Bitboard.X));
+        assertFalse(tracker.place(10, Bitboard.X));
+        assertTrue(tracker.place(15, Bitboard.X));
+        assertTrue(tracker.lastMoveWon());
+        assertTrue(tracker.hasWinner());
+
+        assertEquals(15, tracker.undo());
+        assertFalse(tracker.lastMoveWon());
+        assertFalse(tracker.hasWinner());
+        assertEquals(3, tracker.count(Bitboard.X, 8));
+    }
+
+    @Test
+    public void testingMixedLineDoesNotWin()
+    {
+        WinTracker tracker = new WinTracker(3);
+        tracker.place(0, Bitboard.X);
+        tracker.place(1, Bitboard.O);
+        assertFalse(tracker.place(2, Bitboard.X));
+        assertFalse(tracker.hasWinner());
+
+        // Replacing the O completes the row.
+        tracker.remove(1);
+        assertTrue(tracker.place(1, Bitboard.X));
+        assertEquals(3, tracker.getMoveCount());
+    }
+}